@@ -0,0 +1,101 @@
+import java.util.function.LongSupplier;
+
+import poker.bench.Workloads;
+
+// The default-package side of poker.bench.Workloads: plain calls into the calculator, loaded once by reflection
+public class BenchWorkloads implements Workloads {
+    private static final Card[] HAND = {Card.of(Card.Value.ACE, Card.Suit.HEARTS), Card.of(Card.Value.KING, Card.Suit.HEARTS)};
+    private static final Card[] BOARD = {
+            Card.of(Card.Value.TWO, Card.Suit.HEARTS), Card.of(Card.Value.SEVEN, Card.Suit.CLUBS),
+            Card.of(Card.Value.NINE, Card.Suit.DIAMONDS), Card.of(Card.Value.TEN, Card.Suit.SPADES),
+            Card.of(Card.Value.THREE, Card.Suit.CLUBS)};
+
+    @Override
+    public LongSupplier handProbability(int boardSize, String handType) {
+        ProbabilityCalculator calculator = newCalculator(boardSize);
+        ProbabilityCalculator.HandType type = ProbabilityCalculator.HandType.valueOf(handType);
+        return () -> calculator.calculateHandProbability(type).getNumerator();
+    }
+
+    @Override
+    public long freshDistribution(int boardSize) {
+        return newCalculator(boardSize).calculateHandDistribution().getTotal();
+    }
+
+    @Override
+    public Workloads.DeckOps deck() {
+        Deck deck = new Deck();
+        Deck scenarioDeck = new Deck();
+        Card card = Card.of(Card.Value.QUEEN, Card.Suit.SPADES);
+        DeckSnapshot flop = DeckSnapshot.FULL.without(CardSet.cardBit(BOARD[0]) | CardSet.cardBit(BOARD[1]) | CardSet.cardBit(BOARD[2]));
+        Card.Value[] values = Card.Value.values();
+        return new Workloads.DeckOps() {
+            @Override
+            public long removeAndAdd() {
+                boolean removed = deck.removeCard(card);
+                deck.addCard(card);
+                return removed ? 1 : 0;
+            }
+
+            @Override
+            public long create() {
+                return new Deck().getCardCount();
+            }
+
+            @Override
+            public long restore() { // per-scenario setup on a reused deck
+                scenarioDeck.restore(flop);
+                return scenarioDeck.getCardCount();
+            }
+
+            @Override
+            public long countCardsWithValue() {
+                long total = 0;
+                for (Card.Value value : values) {
+                    total += deck.countCardsWithValue(value);
+                }
+                return total;
+            }
+        };
+    }
+
+    @Override
+    public int evaluate(long cards) {
+        return HandEvaluator.evaluate(cards);
+    }
+
+    @Override
+    public void evaluateScalar(long[] cards, int[] handValues, int count) {
+        BatchEvaluator.evaluateScalar(cards, handValues, count);
+    }
+
+    @Override
+    public void evaluateTables(long[] cards, int[] handValues, int count) {
+        BatchEvaluator.evaluateTables(cards, handValues, count);
+    }
+
+    @Override
+    public void evaluateVector(long[] cards, int[] handValues, int count) {
+        BatchEvaluator.evaluateVector(cards, handValues, count);
+    }
+
+    @Override
+    public boolean isVectorAvailable() {
+        return BatchEvaluator.isVectorAvailable();
+    }
+
+    private static ProbabilityCalculator newCalculator(int boardSize) {
+        Deck deck = new Deck();
+        Player player = new Player();
+        Table table = new Table();
+        for (Card card : HAND) {
+            deck.removeCard(card);
+            player.addCard(card);
+        }
+        for (int i = 0; i < boardSize; i++) {
+            deck.removeCard(BOARD[i]);
+            table.addCommunityCard(BOARD[i]);
+        }
+        return new ProbabilityCalculator(player, table, deck);
+    }
+}
@@ -0,0 +1,165 @@
+package poker.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Micro-benchmarks for the calculator hot paths. Run them with "mvn -Pbench verify", which adds -prof gc so every
+// result comes with its allocation rate; -Dbench.filter=<regex> picks benchmarks by name.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class HotPathBenchmarks {
+    private static final Workloads WORKLOADS = Workloads.load();
+    private static final String[] STREETS = {"PRE_FLOP", "FLOP", "TURN", "RIVER"};
+    private static final int[] BOARD_SIZES = {0, 3, 4, 5};
+    private static final int HAND_COUNT = 1 << 16;
+    private static final int BLOCK_SIZE = 256;
+
+    @State(Scope.Thread)
+    public static class Street {
+        @Param({"PRE_FLOP", "FLOP", "TURN", "RIVER"})
+        public String street;
+
+        @Param({"HIGH_CARD", "PAIR", "TWO_PAIR", "THREE_OF_A_KIND", "STRAIGHT", "FLUSH", "FULL_HOUSE",
+                "FOUR_OF_A_KIND", "STRAIGHT_FLUSH", "ROYAL_FLUSH"})
+        public String handType;
+
+        int boardSize;
+        LongSupplier handProbability;
+
+        @Setup
+        public void setUp() {
+            boardSize = BOARD_SIZES[Arrays.asList(STREETS).indexOf(street)];
+            handProbability = WORKLOADS.handProbability(boardSize, handType);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Decks {
+        Workloads.DeckOps deck;
+
+        @Setup
+        public void setUp() {
+            deck = WORKLOADS.deck();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Hands {
+        long[] hands;
+        long[] block = new long[BLOCK_SIZE];
+        int[] handValues = new int[BLOCK_SIZE];
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            hands = randomHands(HAND_COUNT, 7);
+        }
+
+        long nextHand() {
+            next = (next + 1) & (HAND_COUNT - 1);
+            return hands[next];
+        }
+
+        // The next block of the same hands; a block result covers BLOCK_SIZE evaluations
+        long[] nextBlock() {
+            next = (next + BLOCK_SIZE) & (HAND_COUNT - 1);
+            System.arraycopy(hands, next, block, 0, BLOCK_SIZE);
+            return block;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class VectorHands extends Hands {
+        @Override
+        @Setup(Level.Trial)
+        public void setUp() {
+            if (!WORKLOADS.isVectorAvailable()) {
+                throw new IllegalStateException("The vector evaluator is not available; run with -Pbench,vector.");
+            }
+            super.setUp();
+        }
+    }
+
+    @Benchmark
+    public long calculateHandProbability(Street street) {
+        return street.handProbability.getAsLong();
+    }
+
+    @Benchmark
+    public long calculatorOutput(Street street) { // fresh calculator, no reuse; handType does not matter here
+        return WORKLOADS.freshDistribution(street.boardSize);
+    }
+
+    @Benchmark
+    public long deckRemoveCard(Decks decks) {
+        return decks.deck.removeAndAdd();
+    }
+
+    @Benchmark
+    public long deckNew(Decks decks) {
+        return decks.deck.create();
+    }
+
+    @Benchmark
+    public long deckRestoreSnapshot(Decks decks) {
+        return decks.deck.restore();
+    }
+
+    @Benchmark
+    public long deckCountCardsWithValue(Decks decks) {
+        return decks.deck.countCardsWithValue();
+    }
+
+    @Benchmark
+    public int evaluateSeven(Hands hands) {
+        return WORKLOADS.evaluate(hands.nextHand());
+    }
+
+    @Benchmark
+    public int batchEvaluateScalar(Hands hands) {
+        WORKLOADS.evaluateScalar(hands.nextBlock(), hands.handValues, BLOCK_SIZE);
+        return hands.handValues[BLOCK_SIZE - 1];
+    }
+
+    @Benchmark
+    public int batchEvaluateTables(Hands hands) {
+        WORKLOADS.evaluateTables(hands.nextBlock(), hands.handValues, BLOCK_SIZE);
+        return hands.handValues[BLOCK_SIZE - 1];
+    }
+
+    // Only under -Pbench,vector; elsewhere its setup fails and JMH moves on to the next benchmark
+    @Benchmark
+    public int batchEvaluateVector(VectorHands hands) {
+        WORKLOADS.evaluateVector(hands.nextBlock(), hands.handValues, BLOCK_SIZE);
+        return hands.handValues[BLOCK_SIZE - 1];
+    }
+
+    private static long[] randomHands(int count, int cardsPerHand) {
+        Random random = new Random(42);
+        long[] hands = new long[count];
+        for (int i = 0; i < count; i++) {
+            while (Long.bitCount(hands[i]) < cardsPerHand) {
+                hands[i] |= 1L << random.nextInt(52);
+            }
+        }
+        return hands;
+    }
+}
@@ -0,0 +1,45 @@
+package poker.bench;
+
+import java.util.function.LongSupplier;
+
+// The hot paths as JMH sees them. JMH cannot generate code for classes in the default package, where the
+// calculator lives, so the benchmarks call it through this interface and BenchWorkloads implements it there.
+public interface Workloads {
+    String IMPLEMENTATION = "BenchWorkloads";
+
+    // calculateHandProbability(handType) on a calculator holding AhKh and the first boardSize cards of a fixed board
+    LongSupplier handProbability(int boardSize, String handType);
+
+    // A fresh calculator and its full distribution, so nothing from an earlier call is reused
+    long freshDistribution(int boardSize);
+
+    DeckOps deck();
+
+    int evaluate(long cards);
+
+    void evaluateScalar(long[] cards, int[] handValues, int count);
+
+    void evaluateTables(long[] cards, int[] handValues, int count);
+
+    void evaluateVector(long[] cards, int[] handValues, int count);
+
+    boolean isVectorAvailable();
+
+    interface DeckOps {
+        long removeAndAdd();
+
+        long create();
+
+        long restore();
+
+        long countCardsWithValue();
+    }
+
+    static Workloads load() {
+        try {
+            return (Workloads) Class.forName(IMPLEMENTATION).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not load " + IMPLEMENTATION + " from the default package.", e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+// Answer of ProbabilityCalculator.calculateWithin: exact counts when the enumeration fit in the time budget,
+// otherwise sampled counts with the 95% error bound they reached by the deadline. DistributionPublisher streams
+// the same snapshots as its estimates firm up.
+public class AnytimeResult {
+    private static final ProbabilityCalculator.HandType[] HAND_TYPES = ProbabilityCalculator.HandType.values();
+
+    private final HandDistribution distribution;
+    private final boolean distributionExact;
+    private final double distributionErrorBound; // widest half-width over the hand types, 0 when exact
+    private final EquityResult equity; // null when no opponents were asked for
+    private final boolean equityExact;
+    private final double equityErrorBound;
+    private final long elapsedNanos;
+
+    AnytimeResult(HandDistribution distribution, boolean distributionExact, double distributionErrorBound,
+                  EquityResult equity, boolean equityExact, double equityErrorBound, long elapsedNanos) {
+        this.distribution = distribution;
+        this.distributionExact = distributionExact;
+        this.distributionErrorBound = distributionErrorBound;
+        this.equity = equity;
+        this.equityExact = equityExact;
+        this.equityErrorBound = equityErrorBound;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public boolean isExact() {
+        return distributionExact && (equity == null || equityExact);
+    }
+
+    public HandDistribution getDistribution() {
+        return distribution;
+    }
+
+    public double getProbability(ProbabilityCalculator.HandType handType) {
+        return distribution.getProbability(handType);
+    }
+
+    public boolean isDistributionExact() {
+        return distributionExact;
+    }
+
+    public double getDistributionErrorBound() {
+        return distributionErrorBound;
+    }
+
+    public EquityResult getEquity() {
+        return equity;
+    }
+
+    public boolean isEquityExact() {
+        return equity != null && equityExact;
+    }
+
+    public double getEquityErrorBound() {
+        return equity == null ? 0 : equityErrorBound;
+    }
+
+    // The widest 95% half-width of anything in the result; 0 when everything is exact
+    public double getErrorBound() {
+        return Math.max(distributionErrorBound, getEquityErrorBound());
+    }
+
+    // Runouts enumerated for an exact distribution, samples drawn for an estimated one
+    public long getRunouts() {
+        return distribution.getTotal();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        String result = String.format("%s over %d runouts in %.2f ms%n", distributionExact ? "Exact" : "Estimated",
+                distribution.getTotal(), elapsedNanos / 1e6);
+        for (ProbabilityCalculator.HandType handType : HAND_TYPES) {
+            result += distributionExact ? String.format("%s: %.4f%n", handType, distribution.getProbability(handType))
+                    : String.format("%s: %.4f +/- %.4f%n", handType, distribution.getProbability(handType), distributionErrorBound);
+        }
+        if (equity != null) {
+            result += equity + System.lineSeparator(); // a sampled equity prints its own error bound
+        }
+        return result;
+    }
+}
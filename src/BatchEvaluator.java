@@ -0,0 +1,239 @@
+import jdk.jfr.FlightRecorder;
+
+// Evaluates whole arrays of hands without a data-dependent branch per card value.
+// The scalar evaluator walks the values a hand holds one by one, and that loop's unpredictable trip count
+// and running position dominate its cost. Here the 13 value counts are kept as base-5 digits, so each
+// suit adds all of its values' counts in one lookup-and-add. The multiset index then splits into a
+// low-values part and a high-values part, each read from a precomputed table. The flush suit is picked
+// with masks instead of a test per suit, so the loop body is nearly the same straight line for every hand.
+// Built with -Pvector and run with --add-modules jdk.incubator.vector, evaluateVector moves the per-hand bit
+// work onto Vector API lanes (VectorBatchEvaluator in vector/). evaluate only takes that path with
+// -Dbatch.vector=true: the lookups dominate either way, and on AVX2/AVX-512 the lanes measured slower than
+// the tables (HotPathBenchmarks.batchEvaluateVector against batchEvaluateTables).
+public class BatchEvaluator {
+    public static final String VECTOR_PROPERTY = "batch.vector";
+    private static final String VECTOR_KERNEL = "VectorBatchEvaluator";
+    private static final int VALUE_COUNT = CardSet.VALUE_COUNT;
+    private static final int SUIT_BITS = (1 << VALUE_COUNT) - 1;
+    private static final int LOW_VALUES = 7; // TWO..EIGHT
+    private static final int HIGH_VALUES = VALUE_COUNT - LOW_VALUES; // NINE..ACE
+    private static final int LOW_BITS = (1 << LOW_VALUES) - 1;
+    private static final long LOW_CARDS = lowCards(); // every card of a low value, in all four suits
+    private static final int MIN_CARDS = 5;
+    private static final int MAX_CARDS = 7;
+    private static final int DIGIT_BASE = CardSet.SUIT_COUNT + 1; // a value appears 0 to 4 times
+    private static final int COUNTS_PER_POSITION = CardSet.SUIT_COUNT + 1;
+    private static final int POSITIONS_PER_VALUE = (MAX_CARDS + 1) * COUNTS_PER_POSITION;
+
+    private static final int[] LOW_DIGITS = new int[1 << LOW_VALUES]; // one suit's low values as base-5 digits
+    private static final int[] HIGH_DIGITS = new int[1 << HIGH_VALUES];
+    private static final char[] LOW_INDEX; // multiset index contributed by the low values, by their digits
+    private static final char[] HIGH_INDEX; // same for the high values, by their digits and how many low cards came before
+
+    // A hand's per-value counts, as three bit planes, and its flush suit packed into one long, so a vector
+    // kernel can hand a whole lane back through one array slot
+    static final int KEY_TWOS_SHIFT = VALUE_COUNT;
+    static final int KEY_FOURS_SHIFT = 2 * VALUE_COUNT;
+    static final int KEY_FLUSH_SHIFT = 3 * VALUE_COUNT;
+
+    // Fills handValues like evaluate, leaving the table reads to valueOf and any leftover hands to evaluateOne
+    interface Kernel {
+        void evaluate(long[] cards, int[] handValues, int count);
+    }
+
+    static {
+        int lowKeys = pow(DIGIT_BASE, LOW_VALUES);
+        int highKeys = pow(DIGIT_BASE, HIGH_VALUES);
+        for (int mask = 0; mask < LOW_DIGITS.length; mask++) {
+            LOW_DIGITS[mask] = digits(mask, LOW_VALUES);
+        }
+        for (int mask = 0; mask < HIGH_DIGITS.length; mask++) {
+            HIGH_DIGITS[mask] = digits(mask, HIGH_VALUES);
+        }
+        // Both tables replay the scalar evaluator's offsets, so the two halves add up to its exact index
+        int[] offsets = HandEvaluator.flatMultisetOffsets();
+        LOW_INDEX = new char[lowKeys];
+        for (int key = 0; key < lowKeys; key++) {
+            LOW_INDEX[key] = (char) partialIndex(offsets, key, 0, LOW_VALUES, 0);
+        }
+        HIGH_INDEX = new char[highKeys * (MAX_CARDS + 1)];
+        for (int key = 0; key < highKeys; key++) {
+            for (int lowCards = 0; lowCards <= MAX_CARDS; lowCards++) {
+                HIGH_INDEX[key * (MAX_CARDS + 1) + lowCards] = (char) partialIndex(offsets, key, LOW_VALUES, VALUE_COUNT, lowCards);
+            }
+        }
+    }
+
+    private static final Kernel VECTOR = loadVectorKernel(); // after the tables, which the kernel may read while loading
+    private static final boolean USE_VECTOR = VECTOR != null && Boolean.getBoolean(VECTOR_PROPERTY);
+
+    // handValues[i] = HandEvaluator.evaluate(cards[i]) for the first count hands
+    public static void evaluate(long[] cards, int[] handValues, int count) {
+        if (USE_VECTOR) {
+            evaluateVector(cards, handValues, count);
+        } else {
+            evaluateTables(cards, handValues, count);
+        }
+    }
+
+    // The table path on its own, whether or not the vector kernel is available
+    public static void evaluateTables(long[] cards, int[] handValues, int count) {
+        checkCount(cards, handValues, count);
+        EvaluationEvent event = beginBatch();
+        for (int i = 0; i < count; i++) {
+            handValues[i] = evaluateOne(cards[i]);
+        }
+        commitBatch(event, "tables", count);
+    }
+
+    public static void evaluateVector(long[] cards, int[] handValues, int count) {
+        if (VECTOR == null) {
+            throw new IllegalStateException("The vector evaluator needs the vector build profile and --add-modules jdk.incubator.vector.");
+        }
+        checkCount(cards, handValues, count);
+        EvaluationEvent event = beginBatch();
+        VECTOR.evaluate(cards, handValues, count);
+        commitBatch(event, "vector", count);
+    }
+
+    public static boolean isVectorAvailable() {
+        return VECTOR != null;
+    }
+
+    // Kept as its own small method so the JIT compiles it early and then inlines it into the batch loop
+    static int evaluateOne(long mask) {
+        int first = (int) mask & SUIT_BITS;
+        int second = (int) (mask >>> VALUE_COUNT) & SUIT_BITS;
+        int third = (int) (mask >>> (2 * VALUE_COUNT)) & SUIT_BITS;
+        int fourth = (int) (mask >>> (3 * VALUE_COUNT)) & SUIT_BITS;
+        int cardCount = Long.bitCount(mask);
+        if (cardCount < MIN_CARDS || cardCount > MAX_CARDS) {
+            throw new IllegalArgumentException("Can only evaluate 5 to 7 cards, got " + cardCount);
+        }
+        // With seven cards at most one suit can hold five, so the flush suit is the OR of the suits that qualify
+        int flush = flushSuit(first) | flushSuit(second) | flushSuit(third) | flushSuit(fourth);
+        if (flush != 0) {
+            return HandEvaluator.flushValue(flush);
+        }
+        int lowKey = LOW_DIGITS[first & LOW_BITS] + LOW_DIGITS[second & LOW_BITS]
+                + LOW_DIGITS[third & LOW_BITS] + LOW_DIGITS[fourth & LOW_BITS];
+        int highKey = HIGH_DIGITS[first >>> LOW_VALUES] + HIGH_DIGITS[second >>> LOW_VALUES]
+                + HIGH_DIGITS[third >>> LOW_VALUES] + HIGH_DIGITS[fourth >>> LOW_VALUES];
+        int lowCards = Long.bitCount(mask & LOW_CARDS);
+        return HandEvaluator.multisetValue(cardCount, LOW_INDEX[lowKey] + HIGH_INDEX[highKey * (MAX_CARDS + 1) + lowCards]);
+    }
+
+    // The table reads for keys a kernel packed as ones | twos << 13 | fours << 26 | flush << 39, where bit v of
+    // ones, twos and fours spells value v's count. A count's digit is then ones + 2 twos + 4 fours, one lookup per plane.
+    static int valueOf(long mask, long keys) {
+        int cardCount = Long.bitCount(mask);
+        if (cardCount < MIN_CARDS || cardCount > MAX_CARDS) {
+            throw new IllegalArgumentException("Can only evaluate 5 to 7 cards, got " + cardCount);
+        }
+        int flush = (int) (keys >>> KEY_FLUSH_SHIFT) & SUIT_BITS;
+        if (flush != 0) {
+            return HandEvaluator.flushValue(flush);
+        }
+        int ones = (int) keys & SUIT_BITS;
+        int twos = (int) (keys >>> KEY_TWOS_SHIFT) & SUIT_BITS;
+        int fours = (int) (keys >>> KEY_FOURS_SHIFT) & SUIT_BITS;
+        int lowKey = LOW_DIGITS[ones & LOW_BITS] + 2 * LOW_DIGITS[twos & LOW_BITS] + 4 * LOW_DIGITS[fours & LOW_BITS];
+        int highKey = HIGH_DIGITS[ones >>> LOW_VALUES] + 2 * HIGH_DIGITS[twos >>> LOW_VALUES] + 4 * HIGH_DIGITS[fours >>> LOW_VALUES];
+        int lowCards = Long.bitCount(mask & LOW_CARDS);
+        return HandEvaluator.multisetValue(cardCount, LOW_INDEX[lowKey] + HIGH_INDEX[highKey * (MAX_CARDS + 1) + lowCards]);
+    }
+
+    // The one-hand-at-a-time path, kept as the reference and the fallback
+    public static void evaluateScalar(long[] cards, int[] handValues, int count) {
+        checkCount(cards, handValues, count);
+        EvaluationEvent event = beginBatch();
+        for (int i = 0; i < count; i++) {
+            handValues[i] = HandEvaluator.evaluate(cards[i]);
+        }
+        commitBatch(event, "scalar", count);
+    }
+
+    // Null unless Flight Recorder is running and a recording enabled poker.Evaluation, so the check and the
+    // allocation happen once per batch and a plain run never loads the event class
+    static EvaluationEvent beginBatch() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        EvaluationEvent event = new EvaluationEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitBatch(EvaluationEvent event, String evaluator, int hands) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.evaluator = evaluator;
+            event.hands = hands;
+            event.commit();
+        }
+    }
+
+    // Null unless the vector classes were compiled in and the incubator module is present at run time
+    private static Kernel loadVectorKernel() {
+        try {
+            return (Kernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static long lowCards() {
+        long cards = 0;
+        for (int suit = 0; suit < CardSet.SUIT_COUNT; suit++) {
+            cards |= (long) LOW_BITS << (suit * VALUE_COUNT);
+        }
+        return cards;
+    }
+
+    private static int flushSuit(int suitMask) {
+        return suitMask & -((Integer.bitCount(suitMask) + 3) >>> 3); // the mask itself with 5 or more cards, else 0
+    }
+
+    private static void checkCount(long[] cards, int[] handValues, int count) {
+        if (count < 0 || count > cards.length || count > handValues.length) {
+            throw new IllegalArgumentException("Count " + count + " does not fit the arrays.");
+        }
+    }
+
+    private static int digits(int mask, int values) {
+        int key = 0;
+        for (int value = values - 1; value >= 0; value--) {
+            key = key * DIGIT_BASE + ((mask >>> value) & 1);
+        }
+        return key;
+    }
+
+    // What values fromValue..toValue - 1 add to the multiset index, or 0 if the counts do not fit in seven cards
+    private static int partialIndex(int[] offsets, int key, int fromValue, int toValue, int position) {
+        int index = 0;
+        for (int value = fromValue; value < toValue; value++) {
+            int copies = key % DIGIT_BASE;
+            key /= DIGIT_BASE;
+            if (position + copies > MAX_CARDS) {
+                return 0;
+            }
+            index += offsets[value * POSITIONS_PER_VALUE + position * COUNTS_PER_POSITION + copies];
+            position += copies;
+        }
+        return index;
+    }
+
+    private static int pow(int base, int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+}
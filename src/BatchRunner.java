@@ -0,0 +1,250 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Non-interactive entry point: one scenario per line ("AhKh 2h7c9d", hand first, board optional),
+// results streamed to CSV or JSON lines in input order.
+//   java BatchRunner <input> <output|-> [--format csv|json] [--opponents N] [--samples N] [--threads N]
+public class BatchRunner {
+    private static final ProbabilityCalculator.HandType[] HAND_TYPES = ProbabilityCalculator.HandType.values();
+    private static final int IN_FLIGHT_PER_THREAD = 4; // bounds memory: only this many scenarios per worker are queued
+
+    private final boolean json;
+    private final int opponents;
+    private final long samples;
+    private final int threads;
+
+    public BatchRunner(boolean json, int opponents, long samples, int threads) {
+        if (opponents < 0 || opponents > MonteCarloSimulator.MAX_OPPONENTS) {
+            throw new IllegalArgumentException("Number of opponents must be between 0 and " + MonteCarloSimulator.MAX_OPPONENTS + ".");
+        }
+        if (samples <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Samples and threads must be positive.");
+        }
+        this.json = json;
+        this.opponents = opponents;
+        this.samples = samples;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            usageError(null);
+        }
+        boolean json = false;
+        int opponents = 1;
+        long samples = 20_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 2; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                usageError("Missing value for " + args[i]);
+            }
+            switch (args[i]) {
+                case "--format":
+                    if (!"json".equalsIgnoreCase(args[i + 1]) && !"csv".equalsIgnoreCase(args[i + 1])) {
+                        usageError("Unknown format " + args[i + 1]);
+                    }
+                    json = "json".equalsIgnoreCase(args[i + 1]);
+                    break;
+                case "--opponents":
+                    opponents = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--samples":
+                    samples = Long.parseLong(args[i + 1]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    usageError("Unknown option " + args[i]);
+            }
+        }
+        BatchRunner runner = new BatchRunner(json, opponents, samples, threads);
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8);
+             Writer writer = "-".equals(args[1])
+                     ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)
+                     : Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            long start = System.nanoTime();
+            long scenarios = runner.run(reader, writer);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf(Locale.ROOT, "Processed %d scenarios in %.2f s (%.1f scenarios/s)%n", scenarios, seconds, scenarios / seconds);
+        }
+    }
+
+    private static void usageError(String message) {
+        if (message != null) {
+            System.err.println(message);
+        }
+        System.err.println("Usage: java BatchRunner <input> <output|-> [--format csv|json] [--opponents N] [--samples N] [--threads N]");
+        System.exit(2);
+    }
+
+    // Reads scenarios line by line, fans them out to a worker pool and writes results in input order; returns the count
+    public long run(BufferedReader reader, Writer writer) throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<String>> inFlight = new ArrayDeque<>();
+        long scenarios = 0;
+        try {
+            if (!json) {
+                writer.write(csvHeader());
+            }
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String scenario = line.trim();
+                if (scenario.isEmpty() || scenario.startsWith("#")) {
+                    continue;
+                }
+                long number = lineNumber;
+                inFlight.addLast(workers.submit(() -> evaluate(number, scenario)));
+                scenarios++;
+                if (inFlight.size() >= threads * IN_FLIGHT_PER_THREAD) {
+                    writer.write(await(inFlight.removeFirst()));
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                writer.write(await(inFlight.removeFirst()));
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        writer.flush();
+        return scenarios;
+    }
+
+    private static String await(Future<String> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a scenario.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Scenario evaluation failed.", e.getCause());
+        }
+    }
+
+    private String evaluate(long lineNumber, String scenario) {
+        int split = 0;
+        while (split < scenario.length() && !Character.isWhitespace(scenario.charAt(split))) {
+            split++;
+        }
+        String hand = scenario.substring(0, split);
+        String board = scenario.substring(split).replaceAll("\\s+", "");
+        // Malformed cards come back as error codes, so a bad line costs no exception
+        long handCards = CardParser.parseCards(scenario, 0, split);
+        if (handCards < 0) {
+            return errorLine(lineNumber, hand, board, CardParser.describe(handCards));
+        }
+        long communityCards = CardParser.parseCards(scenario, split, scenario.length());
+        if (communityCards < 0) {
+            return errorLine(lineNumber, hand, board, CardParser.describe(communityCards));
+        }
+        int boardCount = Long.bitCount(communityCards);
+        if (Long.bitCount(handCards) != 2 || (boardCount != 0 && boardCount < 3) || boardCount > 5) {
+            return errorLine(lineNumber, hand, board, "Need two hole cards and a board of 0, 3, 4 or 5 cards.");
+        }
+        if ((handCards & communityCards) != 0) {
+            return errorLine(lineNumber, hand, board, CardParser.describe(CardParser.DUPLICATE_CARD));
+        }
+        // Rows echo the parsed cards rather than the raw text, which may hold commas between cards
+        hand = CardParser.formatCards(handCards);
+        board = CardParser.formatCards(communityCards);
+        try {
+            long deckCards = DeckSnapshot.deckCards(handCards | communityCards, 0);
+            HandDistribution distribution = new HandEnumerator(handCards, communityCards, deckCards).enumerate();
+            SimulationResult equity = opponents == 0 ? null
+                    : new MonteCarloSimulator(handCards, communityCards, deckCards, opponents).simulate(0, samples);
+            return json ? jsonLine(lineNumber, hand, board, distribution, equity)
+                    : csvLine(lineNumber, hand, board, distribution, equity);
+        } catch (IllegalArgumentException e) {
+            return errorLine(lineNumber, hand, board, e.getMessage());
+        }
+    }
+
+    private String errorLine(long lineNumber, String hand, String board, String message) {
+        return json ? String.format(Locale.ROOT, "{\"line\":%d,\"hand\":\"%s\",\"board\":\"%s\",\"error\":\"%s\"}%n",
+                lineNumber, escape(hand), escape(board), escape(message))
+                : String.format(Locale.ROOT, "%d,%s,%s,error: %s%n", lineNumber, csvField(hand), csvField(board),
+                message.replace(',', ';'));
+    }
+
+    // Text that did not parse goes out as typed, quoted when it would otherwise split the row
+    private static String csvField(String text) {
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    // Shorthand cards for callers that report a bad request by exception, such as the HTTP service
+    static long parseCards(String cards) {
+        long mask = CardParser.parseCards(cards);
+        if (mask < 0) {
+            throw new IllegalArgumentException(CardParser.describe(mask));
+        }
+        return mask;
+    }
+
+    private String csvHeader() {
+        StringBuilder header = new StringBuilder("line,hand,board");
+        for (ProbabilityCalculator.HandType handType : HAND_TYPES) {
+            header.append(',').append(handType);
+        }
+        if (opponents > 0) {
+            header.append(",win,tie,loss,equity,equity_error");
+        }
+        return header.append(System.lineSeparator()).toString();
+    }
+
+    private String csvLine(long lineNumber, String hand, String board, HandDistribution distribution, SimulationResult equity) {
+        StringBuilder line = new StringBuilder();
+        line.append(lineNumber).append(',').append(hand).append(',').append(board);
+        for (ProbabilityCalculator.HandType handType : HAND_TYPES) {
+            line.append(',').append(String.format(Locale.ROOT, "%.6f", distribution.getProbability(handType)));
+        }
+        if (equity != null) {
+            line.append(String.format(Locale.ROOT, ",%.6f,%.6f,%.6f,%.6f,%.6f", equity.getWinRate(), equity.getTieRate(),
+                    equity.getLossRate(), equity.getEquity(), equity.getEquityErrorBound()));
+        }
+        return line.append(System.lineSeparator()).toString();
+    }
+
+    private String jsonLine(long lineNumber, String hand, String board, HandDistribution distribution, SimulationResult equity) {
+        StringBuilder line = new StringBuilder();
+        line.append("{\"line\":").append(lineNumber)
+                .append(",\"hand\":\"").append(escape(hand)).append("\",\"board\":\"").append(escape(board))
+                .append("\",");
+        appendResultJson(line, distribution, equity);
+        return line.append('}').append(System.lineSeparator()).toString();
+    }
+
+    // The result fields shared with the HTTP service, written after the caller's own opening fields
+    static void appendResultJson(StringBuilder json, HandDistribution distribution, SimulationResult equity) {
+        json.append("\"runouts\":").append(distribution.getTotal()).append(",\"distribution\":{");
+        for (int i = 0; i < HAND_TYPES.length; i++) {
+            json.append(i == 0 ? "" : ",").append('"').append(HAND_TYPES[i]).append("\":")
+                    .append(String.format(Locale.ROOT, "%.6f", distribution.getProbability(HAND_TYPES[i])));
+        }
+        json.append('}');
+        if (equity != null) {
+            json.append(String.format(Locale.ROOT, ",\"win\":%.6f,\"tie\":%.6f,\"loss\":%.6f,\"equity\":%.6f,\"equityError\":%.6f",
+                    equity.getWinRate(), equity.getTieRate(), equity.getLossRate(), equity.getEquity(), equity.getEquityErrorBound()));
+        }
+    }
+
+    static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
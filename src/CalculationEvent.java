@@ -0,0 +1,25 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight Recorder event around one calculator call: a HandType routine, a distribution or an equity query
+@Name("poker.Calculation")
+@Label("Poker Calculation")
+@Category({"Poker", "Calculator"})
+@Description("One ProbabilityCalculator query")
+@StackTrace(false)
+public class CalculationEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Hand Type")
+    public String handType;
+
+    @Label("Community Cards")
+    public int communityCards;
+
+    @Label("Opponents")
+    public int opponents;
+}
@@ -0,0 +1,331 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Long-running local service so other tools can ask questions without starting a JVM each time:
+//   java CalculatorServer [--port N]
+//   POST /calculate {"hand":"AhKh","board":"2h7c9d","dead":"","opponents":1,"samples":20000}
+//   GET /health
+//   GET /stats[?reset=true] latency histograms of the calculation hot path, as text
+public class CalculatorServer {
+    private static final String USAGE = "Usage: java CalculatorServer [--port N]";
+    private static final int DEFAULT_PORT = 8080;
+    private static final long DEFAULT_SAMPLES = 20_000;
+    private static final long MAX_SAMPLES = 10_000_000;
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    private static final LatencyHistogram REQUEST_LATENCY = LatencyHistogram.named("server.calculate");
+    private static final LatencyHistogram SIMULATION_LATENCY = LatencyHistogram.named("server.simulate");
+    private static final LatencyHistogram FAILURE_LATENCY = LatencyHistogram.named("server.calculate.failed"); // 500s
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public CalculatorServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/calculate", this::handleCalculate);
+        server.createContext("/health", exchange -> respond(exchange, 200, "{\"status\":\"ok\"}"));
+        server.createContext("/stats", this::handleStats);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        for (int i = 0; i < args.length; i += 2) {
+            if (!"--port".equals(args[i])) {
+                usageError("Unknown option " + args[i]);
+            } else if (i + 1 == args.length) {
+                usageError("Missing value for --port");
+            }
+            try {
+                port = Integer.parseInt(args[i + 1]);
+            } catch (NumberFormatException e) {
+                usageError("Not a port number: " + args[i + 1]);
+            }
+        }
+        CalculatorServer calculatorServer = new CalculatorServer(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(calculatorServer::stop));
+        calculatorServer.start();
+        log("Listening on http://localhost:" + calculatorServer.getPort() + "/calculate", null);
+    }
+
+    private static void usageError(String message) {
+        log(message + System.lineSeparator() + USAGE, null);
+        System.exit(2);
+    }
+
+    // Everything the server reports goes to stderr through here, one write per message so threads do not interleave
+    private static void log(String message, Throwable cause) {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        out.println(message);
+        if (cause != null) {
+            cause.printStackTrace(out);
+        }
+        out.flush();
+        System.err.print(text);
+        System.err.flush();
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // One virtual thread per request when the JDK has them (21+); the build targets 17, so it is looked up reflectively
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handleCalculate(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            respond(exchange, 405, errorJson("Use POST with a JSON scenario."));
+            return;
+        }
+        long start = System.nanoTime();
+        String response;
+        try {
+            response = calculate(parseObject(readBody(exchange)));
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, errorJson(e.getMessage()));
+            return;
+        } catch (RuntimeException e) { // a bug, not a bad request: answer anyway so the client is not left with a reset
+            FAILURE_LATENCY.record(System.nanoTime() - start);
+            log("Internal error in /calculate", e); // the details stay in the log, not in the response
+            respond(exchange, 500, errorJson("Internal error."));
+            return;
+        }
+        respond(exchange, 200, response);
+        REQUEST_LATENCY.record(System.nanoTime() - start);
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        String stats = LatencyHistogram.dumpAll() + "cache.distribution: " + ProbabilityCalculator.getDistributionCache()
+                + System.lineSeparator() + "cache.equity: " + ProbabilityCalculator.getEquityCache() + System.lineSeparator();
+        if ("reset=true".equals(exchange.getRequestURI().getQuery())) {
+            LatencyHistogram.resetAll();
+        }
+        respond(exchange, 200, "text/plain", stats);
+    }
+
+    // The same fields as a BatchRunner JSON line, for one scenario
+    static String calculate(Map<String, String> request) {
+        String hand = request.getOrDefault("hand", "");
+        String board = request.getOrDefault("board", "");
+        String dead = request.getOrDefault("dead", "");
+        int opponents = parseNumber(request, "opponents", 1);
+        long samples = parseNumber(request, "samples", DEFAULT_SAMPLES);
+        if (opponents < 0 || opponents > MonteCarloSimulator.MAX_OPPONENTS) {
+            throw new IllegalArgumentException("Number of opponents must be between 0 and " + MonteCarloSimulator.MAX_OPPONENTS + ".");
+        }
+        if (samples <= 0 || samples > MAX_SAMPLES) {
+            throw new IllegalArgumentException("Samples must be between 1 and " + MAX_SAMPLES + ".");
+        }
+        long handCards = BatchRunner.parseCards(hand);
+        long communityCards = BatchRunner.parseCards(board);
+        long deadCards = BatchRunner.parseCards(dead);
+        int boardCount = Long.bitCount(communityCards);
+        if (Long.bitCount(handCards) != 2 || (boardCount != 0 && boardCount < 3) || boardCount > 5) {
+            throw new IllegalArgumentException("Need two hole cards and a board of 0, 3, 4 or 5 cards.");
+        }
+        if ((handCards & communityCards) != 0 || ((handCards | communityCards) & deadCards) != 0) {
+            throw new IllegalArgumentException("Duplicate card.");
+        }
+        long deckCards = DeckSnapshot.deckCards(handCards | communityCards, deadCards);
+        // Exact distributions are shared with in-process calculators through the result cache
+        HandDistribution distribution = ProbabilityCalculator.getDistributionCache().computeIfAbsent(
+                ResultCache.key(handCards, communityCards, deckCards, 0),
+                () -> new HandEnumerator(handCards, communityCards, deckCards).enumerate());
+        long simulationStart = System.nanoTime();
+        SimulationResult equity = opponents == 0 ? null
+                : new MonteCarloSimulator(handCards, communityCards, deckCards, opponents).simulate(0, samples);
+        SIMULATION_LATENCY.record(System.nanoTime() - simulationStart);
+        StringBuilder json = new StringBuilder();
+        json.append("{\"hand\":\"").append(BatchRunner.escape(hand)).append("\",\"board\":\"").append(BatchRunner.escape(board)).append("\",");
+        BatchRunner.appendResultJson(json, distribution, equity);
+        return json.append('}').toString();
+    }
+
+    private static int parseNumber(Map<String, String> request, String name, int defaultValue) {
+        long value = parseNumber(request, name, (long) defaultValue);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("\"" + name + "\" is out of range.");
+        }
+        return (int) value;
+    }
+
+    private static long parseNumber(Map<String, String> request, String name, long defaultValue) {
+        String value = request.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("\"" + name + "\" must be a whole number.");
+        }
+    }
+
+    // A flat JSON object of string, number, boolean or null members; enough for scenario requests without a library
+    static Map<String, String> parseObject(String json) {
+        Map<String, String> members = new HashMap<>();
+        int[] at = {skipWhitespace(json, 0)};
+        expect(json, at, '{');
+        if (peek(json, at) == '}') {
+            at[0]++;
+        } else {
+            while (true) {
+                String name = parseString(json, at);
+                expect(json, at, ':');
+                members.put(name, parseValue(json, at));
+                char next = peek(json, at);
+                at[0]++;
+                if (next == '}') {
+                    break;
+                }
+                if (next != ',') {
+                    throw new IllegalArgumentException("Expected ',' or '}' at position " + (at[0] - 1) + ".");
+                }
+            }
+        }
+        if (skipWhitespace(json, at[0]) != json.length()) {
+            throw new IllegalArgumentException("Unexpected text after the JSON object.");
+        }
+        return members;
+    }
+
+    private static String parseValue(String json, int[] at) {
+        char first = peek(json, at);
+        if (first == '"') {
+            return parseString(json, at);
+        }
+        int start = at[0];
+        while (at[0] < json.length() && "+-.eE0123456789truefalsn".indexOf(json.charAt(at[0])) >= 0) {
+            at[0]++;
+        }
+        String literal = json.substring(start, at[0]);
+        if (literal.isEmpty()) {
+            throw new IllegalArgumentException("Only strings, numbers, booleans and null are accepted, at position " + start + ".");
+        }
+        return "null".equals(literal) ? null : literal;
+    }
+
+    private static String parseString(String json, int[] at) {
+        expect(json, at, '"');
+        StringBuilder text = new StringBuilder();
+        while (at[0] < json.length()) {
+            char c = json.charAt(at[0]++);
+            if (c == '"') {
+                return text.toString();
+            }
+            if (c == '\\' && at[0] < json.length()) {
+                char escaped = json.charAt(at[0]++);
+                switch (escaped) {
+                    case 'n':
+                        text.append('\n');
+                        break;
+                    case 't':
+                        text.append('\t');
+                        break;
+                    case 'r':
+                        text.append('\r');
+                        break;
+                    case 'b':
+                        text.append('\b');
+                        break;
+                    case 'f':
+                        text.append('\f');
+                        break;
+                    case 'u':
+                        if (at[0] + 4 > json.length()) {
+                            throw new IllegalArgumentException("Bad unicode escape in JSON string.");
+                        }
+                        try {
+                            text.append((char) Integer.parseInt(json.substring(at[0], at[0] + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("Bad unicode escape in JSON string.");
+                        }
+                        at[0] += 4;
+                        break;
+                    default:
+                        text.append(escaped); // \" \\ \/
+                }
+            } else {
+                text.append(c);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated JSON string.");
+    }
+
+    private static void expect(String json, int[] at, char expected) {
+        if (peek(json, at) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' at position " + at[0] + ".");
+        }
+        at[0]++;
+    }
+
+    // The next non-blank character, leaving the position on it; 0 at the end of the text
+    private static char peek(String json, int[] at) {
+        at[0] = skipWhitespace(json, at[0]);
+        return at[0] < json.length() ? json.charAt(at[0]) : 0;
+    }
+
+    private static int skipWhitespace(String json, int at) {
+        while (at < json.length() && Character.isWhitespace(json.charAt(at))) {
+            at++;
+        }
+        return at;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body is larger than " + MAX_BODY_BYTES + " bytes.");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String errorJson(String message) {
+        return String.format(Locale.ROOT, "{\"error\":\"%s\"}", BatchRunner.escape(message));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        respond(exchange, status, "application/json", json);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+}
@@ -1,4 +1,4 @@
-public class Card {
+public final class Card {
     public enum Suit {
         HEARTS, DIAMONDS, CLUBS, SPADES
     }
@@ -6,61 +6,64 @@ public class Card {
     public enum Value {
         TWO, THREE, FOUR, FIVE, SIX, SEVEN, EIGHT, NINE, TEN, JACK, QUEEN, KING, ACE
     }
-    private Value cardValue;
-    private Suit cardSuit;
 
-    public Card(Value cardValue, Suit cardSuit) {
+    private static final int VALUE_COUNT = 13;
+    public static final int DECK_SIZE = VALUE_COUNT * 4;
+    private static final Card[] CARDS = new Card[DECK_SIZE]; // the only instances, indexed by id
+
+    static {
+        for (Suit suit : Suit.values()) {
+            for (Value value : Value.values()) {
+                Card card = new Card(value, suit);
+                CARDS[card.id] = card;
+            }
+        }
+    }
+
+    private final Value cardValue;
+    private final Suit cardSuit;
+    private final byte id; // suit by suit, TWO to ACE inside a suit; the same as the card's CardSet bit
+
+    private Card(Value cardValue, Suit cardSuit) {
         this.cardValue = cardValue;
         this.cardSuit = cardSuit;
+        this.id = (byte) (cardSuit.ordinal() * VALUE_COUNT + cardValue.ordinal());
     }
 
-    public static int getValueIndex(Value value) {
-        switch (value) {
-            case TWO:
-                return 0;
-            case THREE:
-                return 1;
-            case FOUR:
-                return 2;
-            case FIVE:
-                return 3;
-            case SIX:
-                return 4;
-            case SEVEN:
-                return 5;
-            case EIGHT:
-                return 6;
-            case NINE:
-                return 7;
-            case TEN:
-                return 8;
-            case JACK:
-                return 9;
-            case QUEEN:
-                return 10;
-            case KING:
-                return 11;
-            case ACE:
-                return 12;
-            default:
-                throw new IllegalArgumentException("Unknown card value");
+    // Cards are interned, so the same card is always the same instance and can be compared with ==
+    public static Card of(Value value, Suit suit) {
+        if (value == null || suit == null) {
+            throw new IllegalArgumentException("Card value and suit are required.");
         }
+        return CARDS[suit.ordinal() * VALUE_COUNT + value.ordinal()];
     }
 
-    public Value getCardValue() {
-        return cardValue;
+    public static Card of(int id) {
+        if (id < 0 || id >= DECK_SIZE) {
+            throw new IllegalArgumentException("Card id must be between 0 and " + (DECK_SIZE - 1) + ", got " + id);
+        }
+        return CARDS[id];
     }
 
-    public void setCardValue(Value cardValue) {
-        this.cardValue = cardValue;
+    public static int getValueIndex(Value value) {
+        return value.ordinal();
+    }
+
+    public Value getCardValue() {
+        return cardValue;
     }
 
     public Suit getCardSuit() {
         return cardSuit;
     }
 
-    public void setCardSuit(Suit cardSuit) {
-        this.cardSuit = cardSuit;
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public int hashCode() {
+        return id; // equals stays identity, which is exact for interned cards
     }
 
     @Override
@@ -68,4 +71,4 @@ public class Card {
         return cardValue + " of " + cardSuit;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,184 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Reads cards straight from text or bytes into card ids without allocating or throwing, so a bulk input file
+// can reject a bad line with one comparison instead of an exception. Shorthand is a value from "23456789TJQKA"
+// and a suit from "hdcs" in either case ("Ah", "td"); whole lists may be glued ("2h7c9d") or spaced ("Ts 9c 2h").
+// Card methods return an id (Card.of(id)), list methods a CardSet mask; both return a negative code on failure.
+public final class CardParser {
+    public static final int INVALID_VALUE = -1;
+    public static final int INVALID_SUIT = -2;
+    public static final int INCOMPLETE_CARD = -3;
+    public static final int DUPLICATE_CARD = -4;
+
+    private static final String VALUE_CHARS = "23456789TJQKA";
+    private static final String SUIT_CHARS = "hdcs"; // same order as Card.Suit
+    private static final byte[] VALUE_INDEX = new byte[128]; // by ASCII code, -1 when the character is no value
+    private static final byte[] SUIT_INDEX = new byte[128];
+    private static final Card.Value[] VALUES = Card.Value.values();
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+
+    static {
+        Arrays.fill(VALUE_INDEX, (byte) -1);
+        Arrays.fill(SUIT_INDEX, (byte) -1);
+        for (int i = 0; i < VALUE_CHARS.length(); i++) {
+            VALUE_INDEX[VALUE_CHARS.charAt(i)] = (byte) i;
+            VALUE_INDEX[Character.toLowerCase(VALUE_CHARS.charAt(i))] = (byte) i;
+        }
+        for (int i = 0; i < SUIT_CHARS.length(); i++) {
+            SUIT_INDEX[SUIT_CHARS.charAt(i)] = (byte) i;
+            SUIT_INDEX[Character.toUpperCase(SUIT_CHARS.charAt(i))] = (byte) i;
+        }
+    }
+
+    private CardParser() {
+    }
+
+    public static int parseCard(int valueChar, int suitChar) {
+        int value = valueChar >= 0 && valueChar < 128 ? VALUE_INDEX[valueChar] : -1;
+        if (value < 0) {
+            return INVALID_VALUE;
+        }
+        int suit = suitChar >= 0 && suitChar < 128 ? SUIT_INDEX[suitChar] : -1;
+        if (suit < 0) {
+            return INVALID_SUIT;
+        }
+        return suit * CardSet.VALUE_COUNT + value;
+    }
+
+    // One card typed by a person: shorthand ("Ah") or the long form ("ACE HEARTS"), in any case, blanks around it ignored
+    public static int parseCard(CharSequence text) {
+        int start = skipBlanks(text, 0, text.length());
+        int end = text.length();
+        while (end > start && isBlank(text.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start == 2) {
+            return parseCard(text.charAt(start), text.charAt(start + 1));
+        }
+        int split = start;
+        while (split < end && !isBlank(text.charAt(split))) {
+            split++;
+        }
+        int value = matchName(text, start, split, VALUES);
+        if (value < 0) {
+            return split == end && end - start < 2 ? INCOMPLETE_CARD : INVALID_VALUE;
+        }
+        int suitStart = skipBlanks(text, split, end);
+        if (suitStart == end) {
+            return INCOMPLETE_CARD;
+        }
+        int suit = matchName(text, suitStart, end, SUITS);
+        return suit < 0 ? INVALID_SUIT : suit * CardSet.VALUE_COUNT + value;
+    }
+
+    public static long parseCards(CharSequence text) {
+        return parseCards(text, 0, text.length());
+    }
+
+    // Shorthand cards in text[start, end), glued or separated by blanks; the mask of all of them, or an error code
+    public static long parseCards(CharSequence text, int start, int end) {
+        long mask = 0;
+        int at = skipBlanks(text, start, end);
+        while (at < end) {
+            if (at + 1 == end) {
+                return INCOMPLETE_CARD;
+            }
+            int card = parseCard(text.charAt(at), text.charAt(at + 1));
+            if (card < 0) {
+                return card;
+            }
+            long bit = 1L << card;
+            if ((mask & bit) != 0) {
+                return DUPLICATE_CARD;
+            }
+            mask |= bit;
+            at = skipBlanks(text, at + 2, end);
+        }
+        return mask;
+    }
+
+    // The same over ASCII bytes, read with absolute gets so the buffer's position and limit are left alone
+    public static long parseCards(ByteBuffer buffer, int start, int end) {
+        long mask = 0;
+        int at = skipBlanks(buffer, start, end);
+        while (at < end) {
+            if (at + 1 == end) {
+                return INCOMPLETE_CARD;
+            }
+            int card = parseCard(buffer.get(at), buffer.get(at + 1));
+            if (card < 0) {
+                return card;
+            }
+            long bit = 1L << card;
+            if ((mask & bit) != 0) {
+                return DUPLICATE_CARD;
+            }
+            mask |= bit;
+            at = skipBlanks(buffer, at + 2, end);
+        }
+        return mask;
+    }
+
+    // Only called once a line has already failed, so building the message here costs nothing on the good path
+    public static String describe(long error) {
+        if (error == INVALID_VALUE) {
+            return "Unknown card value; use one of " + VALUE_CHARS + ".";
+        } else if (error == INVALID_SUIT) {
+            return "Unknown card suit; use one of " + SUIT_CHARS + ".";
+        } else if (error == INCOMPLETE_CARD) {
+            return "Cards must be written as value and suit, e.g. Ah.";
+        } else if (error == DUPLICATE_CARD) {
+            return "Duplicate card.";
+        }
+        return error < 0 ? "Unknown card error " + error + "." : "No error.";
+    }
+
+    public static String toShorthand(int card) {
+        return "" + VALUE_CHARS.charAt(CardSet.valueIndexOf(card)) + SUIT_CHARS.charAt(CardSet.suitIndexOf(card));
+    }
+
+    // A CardSet mask back as glued shorthand in card id order, e.g. "9h2c7s"; parseCards reads it back to the same mask
+    public static String formatCards(long cards) {
+        StringBuilder text = new StringBuilder(2 * Long.bitCount(cards));
+        for (long remaining = cards; remaining != 0; remaining &= remaining - 1) {
+            text.append(toShorthand(Long.numberOfTrailingZeros(remaining)));
+        }
+        return text.toString();
+    }
+
+    private static int matchName(CharSequence text, int start, int end, Enum<?>[] names) {
+        for (Enum<?> name : names) {
+            String expected = name.name();
+            if (expected.length() != end - start) {
+                continue;
+            }
+            int i = 0;
+            while (i < expected.length() && Character.toUpperCase(text.charAt(start + i)) == expected.charAt(i)) {
+                i++;
+            }
+            if (i == expected.length()) {
+                return name.ordinal();
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlank(int c) {
+        return c == ' ' || c == '\t' || c == ',';
+    }
+
+    private static int skipBlanks(CharSequence text, int at, int end) {
+        while (at < end && isBlank(text.charAt(at))) {
+            at++;
+        }
+        return at;
+    }
+
+    private static int skipBlanks(ByteBuffer buffer, int at, int end) {
+        while (at < end && isBlank(buffer.get(at))) {
+            at++;
+        }
+        return at;
+    }
+}
@@ -0,0 +1,139 @@
+public class CardSet {
+    public static final int VALUE_COUNT = 13;
+    public static final int SUIT_COUNT = 4;
+    public static final int DECK_SIZE = VALUE_COUNT * SUIT_COUNT;
+    public static final long FULL_DECK = (1L << DECK_SIZE) - 1; // one bit per card, suit by suit
+    private static final long SUIT_BITS = (1L << VALUE_COUNT) - 1; // the 13 bits of a single suit
+    private static final long[] VALUE_MASKS = new long[VALUE_COUNT]; // the four bits that share a value
+
+    static {
+        for (int value = 0; value < VALUE_COUNT; value++) {
+            for (int suit = 0; suit < SUIT_COUNT; suit++) {
+                VALUE_MASKS[value] |= 1L << (suit * VALUE_COUNT + value);
+            }
+        }
+    }
+
+    private long mask;
+
+    public CardSet() {
+        this(0L);
+    }
+
+    public CardSet(long mask) {
+        setMask(mask);
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    public void setMask(long mask) {
+        this.mask = mask & FULL_DECK;
+    }
+
+    // Bit position of a card: suits follow each other, values run from TWO to ACE inside a suit
+    public static int cardIndex(Card.Value value, Card.Suit suit) {
+        return suit.ordinal() * VALUE_COUNT + value.ordinal();
+    }
+
+    public static int cardIndex(Card card) {
+        return card.getId();
+    }
+
+    public static long cardBit(Card card) {
+        return 1L << cardIndex(card);
+    }
+
+    public static Card cardAt(int index) {
+        return Card.of(index);
+    }
+
+    public static int valueIndexOf(int cardIndex) {
+        return cardIndex % VALUE_COUNT;
+    }
+
+    public static int suitIndexOf(int cardIndex) {
+        return cardIndex / VALUE_COUNT;
+    }
+
+    // Primitive helpers so hot loops can work on a raw long without a CardSet instance
+    public static int countValue(long mask, int valueIndex) {
+        return Long.bitCount(mask & VALUE_MASKS[valueIndex]);
+    }
+
+    public static int countSuit(long mask, int suitIndex) {
+        return Long.bitCount(suitMask(mask, suitIndex));
+    }
+
+    public static int suitMask(long mask, int suitIndex) { // the values present in one suit as a 13-bit mask
+        return (int) ((mask >>> (suitIndex * VALUE_COUNT)) & SUIT_BITS);
+    }
+
+    public static long valueMask(int valueIndex) {
+        return VALUE_MASKS[valueIndex];
+    }
+
+    public boolean add(Card card) { // returns false if the card was already in the set
+        long bit = cardBit(card);
+        if ((mask & bit) != 0) {
+            return false;
+        }
+        mask |= bit;
+        return true;
+    }
+
+    public boolean remove(Card card) { // returns false if the card was not in the set
+        long bit = cardBit(card);
+        if ((mask & bit) == 0) {
+            return false;
+        }
+        mask &= ~bit;
+        return true;
+    }
+
+    public boolean contains(Card card) {
+        return card != null && (mask & cardBit(card)) != 0;
+    }
+
+    public int size() {
+        return Long.bitCount(mask);
+    }
+
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    public void clear() {
+        mask = 0;
+    }
+
+    public int countValue(Card.Value value) {
+        return countValue(mask, value.ordinal());
+    }
+
+    public int countSuit(Card.Suit suit) {
+        return countSuit(mask, suit.ordinal());
+    }
+
+    public Card[] toArray() { // cards in bit order, only as many as are in the set
+        Card[] cards = new Card[size()];
+        int index = 0;
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            cards[index++] = cardAt(Long.numberOfTrailingZeros(remaining));
+        }
+        return cards;
+    }
+
+    @Override
+    public String toString() {
+        String result = "";
+        for (Card card : toArray()) {
+            if (!result.isEmpty()) {
+                result += ", ";
+            }
+            result += card;
+        }
+        return result;
+    }
+}
@@ -1,6 +1,24 @@
 public class Combination {
-    public static long calculateCombinations(int n, int k) { //Combination formula
-        return factorial(n) / (factorial(k) * factorial(n - k));
+    public static final int MAX_N = 52; // a full deck
+    private static final long[][] PASCAL = new long[MAX_N + 1][MAX_N + 1]; // PASCAL[n][k] = n choose k, C(52,26) still fits a long
+
+    static {
+        for (int n = 0; n <= MAX_N; n++) {
+            PASCAL[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                PASCAL[n][k] = PASCAL[n - 1][k - 1] + PASCAL[n - 1][k];
+            }
+        }
+    }
+
+    public static long calculateCombinations(int n, int k) { //Combination formula, read from Pascal's triangle
+        if (n < 0 || n > MAX_N) {
+            throw new IllegalArgumentException("n must be between 0 and " + MAX_N + ", got " + n);
+        }
+        if (k < 0 || k > n) {
+            return 0; // no way to choose more cards than there are
+        }
+        return PASCAL[n][k];
     }
     public static long factorial(long number) {  //Factorial formula
         long result = 1;
@@ -9,4 +27,43 @@ public class Combination {
         }
         return result;
     }
+
+    // Combinatorial number system: the set bits of a mask (positions below 52) map to a dense index in colex order
+    public static long rankCombination(long positions) {
+        long index = 0;
+        int chosen = 0;
+        for (long remaining = positions; remaining != 0; remaining &= remaining - 1) {
+            chosen++;
+            index += PASCAL[Long.numberOfTrailingZeros(remaining)][chosen];
+        }
+        return index;
+    }
+
+    // Inverse of rankCombination for subsets of size k
+    public static long unrankCombination(long index, int k) {
+        if (k < 0 || k > MAX_N || index < 0 || index >= PASCAL[MAX_N][k]) { // C(52, k) subsets of size k
+            throw new IllegalArgumentException("Invalid combination index " + index + " for size " + k);
+        }
+        long positions = 0;
+        int position = MAX_N;
+        for (int chosen = k; chosen >= 1; chosen--) {
+            // Largest position whose binomial still fits in what is left of the index
+            do {
+                position--;
+            } while (position >= 0 && PASCAL[position][chosen] > index);
+            if (position < 0) {
+                throw new IllegalArgumentException("Combination index " + index + " is out of range for size " + k);
+            }
+            positions |= 1L << position;
+            index -= PASCAL[position][chosen];
+        }
+        return positions;
+    }
+
+    // The subset that follows in colex order, i.e. the next larger mask with the same number of bits (Gosper's hack)
+    public static long nextCombination(long positions) {
+        long lowest = positions & -positions;
+        long ripple = positions + lowest;
+        return ripple | (((positions ^ ripple) >>> 2) / lowest);
+    }
 }
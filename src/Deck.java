@@ -1,113 +1,83 @@
 public class Deck {
-    private Card[] cards; //aggregation
-    private int cardCount; // population not the whole size of the array
+    private final CardSet cards; //aggregation, one bit per card still in the deck
 
     public Deck() {
-        setCards(new Card[52]); // maximum of 52 cards in the array
-        cardCount = 0; // intializing the card count
-        // Initialize the deck within the constructor
-        int index = 0;
-        for (Card.Suit suit : Card.Suit.values()) {
-            for (Card.Value value : Card.Value.values()) {
-                getCards()[index++] = new Card(value, suit);
-            }
-        }
-        cardCount = 52; // Set the card count to the full deck size
+        cards = new CardSet(CardSet.FULL_DECK); // Initialize the deck with all 52 cards
     }
-    public Card[] getCards() {
-        return cards;
+
+    public Deck(GameRules rules) { // the game's own deck, e.g. 36 cards for short deck
+        cards = new CardSet(rules.getDeckCards());
+    }
+
+    public Deck(DeckSnapshot snapshot) {
+        cards = new CardSet(snapshot.getMask());
+    }
+
+    public DeckSnapshot snapshot() { // an immutable copy; later changes to this deck do not reach it
+        return DeckSnapshot.of(cards.getMask());
+    }
+
+    public void restore(DeckSnapshot snapshot) { // reuse this deck for another scenario without allocating
+        cards.setMask(snapshot.getMask());
+    }
+    public Card[] getCards() { // the cards still in the deck
+        return cards.toArray();
     }
 
     public void setCards(Card[] cards) {
-        this.cards = cards;
+        this.cards.clear();
+        for (Card card : cards) {
+            if (card != null) {
+                this.cards.add(card);
+            }
+        }
+    }
+
+    public CardSet getCardSet() {
+        return cards;
     }
-    public void addCard(Card card) { // adding a card to the end of the deck
-        if (cardCount < 52) {
-            getCards()[cardCount] = card;
-            cardCount++;
+    public void addCard(Card card) { // putting a card back into the deck
+        if (cards.size() < CardSet.DECK_SIZE) {
+            cards.add(card);
         } else {
             System.out.println("Deck is full. Cannot add more cards.");
         }
     }
 
     public boolean removeCard(Card card) { // removing a specific card
-        int index = findCardIndex(card);
-        if (index != -1) {
-            for (int i = index; i < cardCount - 1; i++) {
-                getCards()[i] = getCards()[i + 1];
-            }
-            cardCount--;
-            return true;
-        }
-        return false; // invalidation
+        return cards.remove(card); // false if the card was not in the deck
     }
 
-    private int findCardIndex(Card card) { //linear search
-        for (int i = 0; i < cardCount; i++) {
-            if (getCards()[i].getCardValue() == card.getCardValue() && getCards()[i].getCardSuit() == card.getCardSuit()) {
-                return i;
-            }
-        }
-        return -1; // invalidation
+    public int getCardCount() { // number of cards still in the deck
+        return cards.size();
     }
     public int remainingCards() { // returns the number of cards  that are still in the deck
-        return 52 - cardCount;
+        return cards.size();
     }
 
     public int countCardsWithValue(Card.Value value) {
-        int count = 0;
-        for (int i = 0; i < cardCount; i++) {
-            if (cards[i].getCardValue() == value) {
-                count++;
-            }
-        }
-        return count;
+        return cards.countValue(value);
     }
 
     public int countCardsOfSuit(Card.Suit suit) {
-        int count = 0;
-        for (int i = 0; i < cardCount; i++) {
-            if (cards[i].getCardSuit() == suit) {
-                count++;
-            }
-        }
-        return count;
+        return cards.countSuit(suit);
     }
 
     public boolean containsCard(Card card) {
         // Check if the deck contains a specific card
-        for (int i = 0; i < cardCount; i++) {
-            if (cards[i].equals(card)) {
-                return true;
-            }
-        }
-        return false;
+        return cards.contains(card);
     }
 
     public int countCardsOfValueAndSuit(Card.Value value, Card.Suit suit) {
-        int count = 0;
-        for (int i = 0; i < cardCount; i++) {
-            if (cards[i].getCardValue() == value && cards[i].getCardSuit() == suit) {
-                count++;
-            }
-        }
-        return count;
+        return (cards.getMask() & (1L << CardSet.cardIndex(value, suit))) != 0 ? 1 : 0;
     }
 
     @Override
     public String toString() {
-        if (cardCount == 0) {
+        if (cards.isEmpty()) {
             return "Deck is empty.";
         }
-
-        String deckString = "Deck: ";
-        for (int i = 0; i < cardCount; i++) {
-            deckString += getCards()[i];
-            if (i < cardCount - 1) {
-                deckString += ", ";
-            }
-        }
-        return deckString;
+        return "Deck: " + cards;
     }
 
 
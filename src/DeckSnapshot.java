@@ -0,0 +1,75 @@
+// Immutable set of the cards left in a deck. Removing cards returns a new snapshot and leaves this one alone,
+// so one snapshot can be shared by any number of scenarios, threads or cached results.
+public final class DeckSnapshot {
+    public static final DeckSnapshot FULL = new DeckSnapshot(CardSet.FULL_DECK);
+
+    private final long cards; // CardSet mask
+
+    private DeckSnapshot(long cards) {
+        this.cards = cards;
+    }
+
+    public static DeckSnapshot of(long cards) {
+        long deckCards = cards & CardSet.FULL_DECK;
+        return deckCards == CardSet.FULL_DECK ? FULL : new DeckSnapshot(deckCards);
+    }
+
+    // The deck left once the known cards (hand and board) and any dead cards are out
+    public static DeckSnapshot without(long knownCards, long deadCards) {
+        return of(deckCards(knownCards, deadCards));
+    }
+
+    // The same as a bare mask, for per-scenario setup that should not allocate at all
+    public static long deckCards(long knownCards, long deadCards) {
+        return CardSet.FULL_DECK & ~(knownCards | deadCards);
+    }
+
+    public long getMask() {
+        return cards;
+    }
+
+    // Copy-on-write removal: this snapshot is returned unchanged when none of the cards were in it
+    public DeckSnapshot without(long removedCards) {
+        return (cards & removedCards) == 0 ? this : new DeckSnapshot(cards & ~removedCards);
+    }
+
+    public DeckSnapshot without(Card card) {
+        return without(CardSet.cardBit(card));
+    }
+
+    public boolean contains(Card card) {
+        return (cards & CardSet.cardBit(card)) != 0;
+    }
+
+    public int size() {
+        return Long.bitCount(cards);
+    }
+
+    public int countValue(Card.Value value) {
+        return CardSet.countValue(cards, value.ordinal());
+    }
+
+    public int countSuit(Card.Suit suit) {
+        return CardSet.countSuit(cards, suit.ordinal());
+    }
+
+    // A mutable Deck starting from this snapshot
+    public Deck toDeck() {
+        return new Deck(this);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof DeckSnapshot && ((DeckSnapshot) other).cards == cards;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cards);
+    }
+
+    @Override
+    public String toString() {
+        return "DeckSnapshot: " + new CardSet(cards);
+    }
+}
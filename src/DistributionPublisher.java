@@ -0,0 +1,199 @@
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Publishes snapshots of one calculation that firm up over time: sampled estimates over rounds of doubling size,
+// ending with the exact answer once computing it costs no more than the sampling already done, or earlier with
+// the first estimate whose 95% error bound is within the target. Every subscriber gets its own calculation, and
+// work only happens while it has demand, so a slow subscriber holds the calculation back instead of queuing snapshots.
+public class DistributionPublisher implements Flow.Publisher<AnytimeResult> {
+    private static final long FIRST_ROUND_SAMPLES = 4_096;
+    private static final long MAX_ROUND_SAMPLES = 1 << 22;
+    private static final long MIN_EXACT_NANOS = 1_000_000; // about what the first sampling round costs
+    private static final ProbabilityCalculator.HandType[] HAND_TYPES = ProbabilityCalculator.HandType.values();
+
+    private final long handCards;
+    private final long communityCards;
+    private final long deckCards;
+    private final int opponents;
+    private final GameRules rules;
+    private final double targetError;
+    private final Executor executor;
+    private final PreflopTable preflopTable; // the calculator's fast exact sources, null where they do not apply
+    private final StreetCache streets;
+
+    public DistributionPublisher(long handCards, long communityCards, long deckCards, int opponents, GameRules rules,
+                                 double targetError, Executor executor) {
+        this(handCards, communityCards, deckCards, opponents, rules, targetError, executor, null, null);
+    }
+
+    DistributionPublisher(long handCards, long communityCards, long deckCards, int opponents, GameRules rules,
+                          double targetError, Executor executor, PreflopTable preflopTable, StreetCache streets) {
+        if (opponents < 0 || opponents > MonteCarloSimulator.MAX_OPPONENTS) {
+            throw new IllegalArgumentException("Number of opponents must be between 0 and " + MonteCarloSimulator.MAX_OPPONENTS + ".");
+        }
+        if (!(targetError > 0) || rules == null || executor == null) {
+            throw new IllegalArgumentException("Need a positive target error, the game rules and an executor.");
+        }
+        new MonteCarloSimulator(handCards, communityCards, deckCards, opponents, rules); // rejects impossible spots up front
+        this.handCards = handCards;
+        this.communityCards = communityCards;
+        this.deckCards = deckCards;
+        this.opponents = opponents;
+        this.rules = rules;
+        this.targetError = targetError;
+        this.executor = executor;
+        this.preflopTable = preflopTable;
+        this.streets = streets != null && streets.continues(handCards, communityCards, deckCards) ? streets : null;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super AnytimeResult> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber must not be null.");
+        }
+        ProgressSubscription subscription = new ProgressSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.start(); // requests made inside onSubscribe only run once it has returned
+    }
+
+    // The exact distribution's cost, priced by ExactCost as calculateWithin prices it; FREE when a table or cache holds it
+    private ExactCost distributionCost() {
+        return preflopTable != null || streets != null || ProbabilityCalculator.getDistributionCache()
+                .containsKey(ResultCache.key(handCards, communityCards, deckCards, rules.ordinal()))
+                ? ExactCost.FREE : ExactCost.distribution(communityCards, deckCards, rules);
+    }
+
+    // Likewise for the equity; null when the equity engines would only sample anyway
+    private ExactCost equityCost() {
+        if (opponents == 0) {
+            return ExactCost.FREE;
+        }
+        if (opponents != 1 || rules != GameRules.HOLDEM) {
+            return null;
+        }
+        if ((streets != null && streets.hasHeadsUpEquity())
+                || ProbabilityCalculator.getEquityCache().containsKey(ResultCache.key(handCards, communityCards, deckCards, 1))) {
+            return ExactCost.FREE;
+        }
+        return ExactCost.headsUpEquity(communityCards, deckCards, streets != null);
+    }
+
+    private final class ProgressSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super AnytimeResult> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pendingDrains = new AtomicInteger(); // the drain runs while this is above zero
+        private volatile boolean started;
+        private volatile boolean cancelled;
+        private volatile boolean badRequest; // a non-positive request, reported as an error by the drain
+        // Only touched by the drain, which never runs on two threads at once
+        private final MonteCarloSimulator simulator;
+        private final SimulationResult sampled = new SimulationResult();
+        private final ExactCost distributionCost;
+        private final ExactCost equityCost;
+        private long roundSamples = FIRST_ROUND_SAMPLES;
+        private long startNanos;
+        private boolean done;
+
+        ProgressSubscription(Flow.Subscriber<? super AnytimeResult> subscriber) {
+            this.subscriber = subscriber;
+            simulator = new MonteCarloSimulator(handCards, communityCards, deckCards, opponents, rules);
+            distributionCost = distributionCost();
+            equityCost = equityCost();
+        }
+
+        void start() {
+            startNanos = System.nanoTime();
+            started = true;
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                badRequest = true;
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void schedule() {
+            if (started && pendingDrains.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    cancelled = true;
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        // One snapshot per unit of demand; requests that arrive meanwhile are picked up before the drain returns
+        @Override
+        public void run() {
+            int drains = 1;
+            do {
+                while (!cancelled && !done && (badRequest || demand.get() > 0)) {
+                    if (badRequest) {
+                        cancelled = true;
+                        subscriber.onError(new IllegalArgumentException("Snapshot requests must be positive."));
+                        break;
+                    }
+                    AnytimeResult snapshot;
+                    try {
+                        snapshot = refine();
+                    } catch (RuntimeException e) {
+                        cancelled = true;
+                        subscriber.onError(e);
+                        break;
+                    }
+                    demand.decrementAndGet();
+                    subscriber.onNext(snapshot);
+                    if (done && !cancelled) {
+                        subscriber.onComplete();
+                    }
+                }
+                drains = pendingDrains.addAndGet(-drains);
+            } while (drains != 0);
+        }
+
+        private AnytimeResult refine() {
+            // In measured nanoseconds, the same rates calculateWithin budgets with; anything up to a first round goes straight to exact
+            long spent = System.nanoTime() - startNanos;
+            if (equityCost != null && distributionCost.estimatedNanos() + equityCost.estimatedNanos() <= Math.max(spent, MIN_EXACT_NANOS)) {
+                done = true;
+                return exactResult();
+            }
+            simulator.sampleInto(sampled, roundSamples);
+            roundSamples = Math.min(2 * roundSamples, MAX_ROUND_SAMPLES);
+            long[] counts = new long[HAND_TYPES.length];
+            double distributionErrorBound = 0;
+            for (ProbabilityCalculator.HandType handType : HAND_TYPES) {
+                counts[handType.ordinal()] = sampled.getHandTypeCount(handType);
+                distributionErrorBound = Math.max(distributionErrorBound, sampled.getErrorBound(handType));
+            }
+            EquityResult equity = opponents == 0 ? null : new EquityResult(sampled);
+            double equityErrorBound = opponents == 0 ? 0 : sampled.getEquityErrorBound();
+            done = Math.max(distributionErrorBound, equityErrorBound) <= targetError;
+            return new AnytimeResult(new HandDistribution(counts), false, distributionErrorBound, equity, false,
+                    equityErrorBound, System.nanoTime() - startNanos);
+        }
+
+        // Through the same lookups as the calculator, so tables and caches it already holds answer first
+        private AnytimeResult exactResult() {
+            HandDistribution distribution = distributionCost.run(() -> ProbabilityCalculator.exactDistribution(handCards,
+                    communityCards, deckCards, rules, preflopTable, streets));
+            EquityResult equity = opponents == 0 ? null : equityCost.run(() ->
+                    ProbabilityCalculator.exactHeadsUpEquity(handCards, communityCards, deckCards, streets));
+            return new AnytimeResult(distribution, true, 0, equity, true, 0, System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight Recorder event around one full runout enumeration
+@Name("poker.Enumeration")
+@Label("Runout Enumeration")
+@Category({"Poker", "Enumeration"})
+@Description("HandEnumerator walking every runout from the live deck")
+@StackTrace(false)
+public class EnumerationEvent extends jdk.jfr.Event {
+    @Label("Community Cards")
+    public int communityCards;
+
+    @Label("Deck Cards")
+    public int deckCards;
+
+    @Label("Runouts")
+    public long runouts;
+}
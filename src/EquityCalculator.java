@@ -0,0 +1,150 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class EquityCalculator {
+    public static final int MAX_OPPONENTS = 9;
+    private static final int BOARD_SIZE = 5;
+    private static final int MIN_MULTIWAY_DEALS = 200_000; // random opponent deals per query once there are several opponents
+    private static final long BOARDS_PER_TASK = 512; // below this a task stops splitting and walks its boards itself
+
+    private final long handCards;
+    private final long communityCards;
+    private final long[] deckBits; // one single-bit mask per card still in the deck
+    private final int cardsToDeal;
+    private final int opponents;
+    private final long boardCount;
+    private final int passesPerBoard;
+
+    public EquityCalculator(long handCards, long communityCards, long deckCards, int opponents) {
+        if ((handCards & communityCards) != 0 || ((handCards | communityCards) & deckCards) != 0) {
+            throw new IllegalArgumentException("Hand, community cards and deck must not share cards.");
+        }
+        if (opponents < 1 || opponents > MAX_OPPONENTS) {
+            throw new IllegalArgumentException("Number of opponents must be between 1 and " + MAX_OPPONENTS + ".");
+        }
+        this.handCards = handCards;
+        this.communityCards = communityCards;
+        this.opponents = opponents;
+        cardsToDeal = BOARD_SIZE - Long.bitCount(communityCards);
+        deckBits = new long[Long.bitCount(deckCards)];
+        int index = 0;
+        for (long remaining = deckCards; remaining != 0; remaining &= remaining - 1) {
+            deckBits[index++] = Long.lowestOneBit(remaining);
+        }
+        if (cardsToDeal < 0 || cardsToDeal + 2 * opponents > deckBits.length) {
+            throw new IllegalArgumentException("Not enough cards left in the deck for this runout.");
+        }
+        // Every board is walked exactly; with several opponents each board gets enough random deals to reach the minimum
+        boardCount = Combination.calculateCombinations(deckBits.length, cardsToDeal);
+        passesPerBoard = opponents == 1 ? 1 : (int) Math.max(1, (MIN_MULTIWAY_DEALS + boardCount - 1) / boardCount);
+    }
+
+    public EquityResult calculate() {
+        return calculate(ForkJoinPool.commonPool());
+    }
+
+    public EquityResult calculate(ForkJoinPool pool) {
+        // Boards are numbered by the combinatorial number system, so each task owns a plain index range
+        EquityResult result = pool.invoke(new BoardTask(0, boardCount, new SplittableRandom()));
+        result.setExact(isExact());
+        return result;
+    }
+
+    // Heads-up walks every board and holding; several opponents are random deals, so the result carries an error bound
+    public boolean isExact() {
+        return opponents == 1;
+    }
+
+    @SuppressWarnings("serial") // ForkJoinTask is Serializable, but tasks only ever run in the pool
+    private class BoardTask extends RecursiveTask<EquityResult> {
+        private final long fromBoard;
+        private final long toBoard;
+        private final SplittableRandom random;
+        private long[] remainingBits; // scratch space reused for every board of a leaf task
+        private long[] opponentHands;
+        private int[] opponentValues;
+        private EquityResult result;
+
+        BoardTask(long fromBoard, long toBoard, SplittableRandom random) {
+            this.fromBoard = fromBoard;
+            this.toBoard = toBoard;
+            this.random = random;
+        }
+
+        @Override
+        protected EquityResult compute() {
+            if (toBoard - fromBoard > BOARDS_PER_TASK) {
+                long middle = (fromBoard + toBoard) >>> 1;
+                BoardTask upper = new BoardTask(middle, toBoard, random.split());
+                upper.fork();
+                EquityResult lower = new BoardTask(fromBoard, middle, random.split()).compute();
+                lower.add(upper.join());
+                return lower;
+            }
+            result = new EquityResult();
+            remainingBits = new long[deckBits.length];
+            if (opponents == 1) {
+                int holdings = deckBits.length * (deckBits.length - 1) / 2;
+                opponentHands = new long[holdings];
+                opponentValues = new int[holdings];
+            }
+            long positions = Combination.unrankCombination(fromBoard, cardsToDeal); // which deck cards make up the board
+            for (long board = fromBoard; board < toBoard; board++) {
+                long boardCards = communityCards;
+                for (long remaining = positions; remaining != 0; remaining &= remaining - 1) {
+                    boardCards |= deckBits[Long.numberOfTrailingZeros(remaining)];
+                }
+                evaluateBoard(boardCards);
+                if (cardsToDeal > 0) {
+                    positions = Combination.nextCombination(positions);
+                }
+            }
+            return result;
+        }
+
+        private void evaluateBoard(long board) {
+            int heroValue = HandEvaluator.evaluate(handCards | board);
+            int remaining = 0;
+            for (long bit : deckBits) {
+                if ((board & bit) == 0) {
+                    remainingBits[remaining++] = bit;
+                }
+            }
+            if (opponents == 1) {
+                // Heads-up is exact: every holding the opponent could have on this board, evaluated as one batch
+                int holdings = 0;
+                for (int i = 0; i < remaining - 1; i++) {
+                    long withFirst = board | remainingBits[i];
+                    for (int j = i + 1; j < remaining; j++) {
+                        opponentHands[holdings++] = withFirst | remainingBits[j];
+                    }
+                }
+                BatchEvaluator.evaluate(opponentHands, opponentValues, holdings);
+                for (int i = 0; i < holdings; i++) {
+                    result.record(opponentValues[i] > heroValue, opponentValues[i] == heroValue ? 1 : 0);
+                }
+                return;
+            }
+            for (int pass = 0; pass < passesPerBoard; pass++) {
+                int tiedOpponents = 0;
+                boolean beaten = false;
+                for (int i = 0; i < 2 * opponents; i++) { // partial shuffle, one opponent per two cards
+                    int swap = i + random.nextInt(remaining - i);
+                    long card = remainingBits[swap];
+                    remainingBits[swap] = remainingBits[i];
+                    remainingBits[i] = card;
+                }
+                for (int opponent = 0; opponent < opponents && !beaten; opponent++) {
+                    int opponentValue = HandEvaluator.evaluate(board | remainingBits[2 * opponent] | remainingBits[2 * opponent + 1]);
+                    if (opponentValue > heroValue) {
+                        beaten = true;
+                    } else if (opponentValue == heroValue) {
+                        tiedOpponents++;
+                    }
+                }
+                result.record(beaten, tiedOpponents);
+            }
+        }
+    }
+}
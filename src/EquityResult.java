@@ -0,0 +1,113 @@
+public class EquityResult {
+    private long wins;
+    private long ties;
+    private long losses;
+    private double equitySum; // a tie with k opponents is credited 1/(k+1) of the pot
+    private double equitySquareSum; // for the error bound once the trials are a random sample
+    private boolean exact = true; // false once the trials are random deals rather than every one
+
+    public EquityResult() {
+    }
+
+    EquityResult(long wins, long ties, long losses, double equitySum) {
+        this.wins = wins;
+        this.ties = ties;
+        this.losses = losses;
+        this.equitySum = equitySum;
+    }
+
+    // A sampled result, which reports an error bound like SimulationResult
+    EquityResult(long wins, long ties, long losses, double equitySum, double equitySquareSum) {
+        this(wins, ties, losses, equitySum);
+        this.equitySquareSum = equitySquareSum;
+        exact = false;
+    }
+
+    EquityResult(SimulationResult sampled) {
+        this(sampled.getWins(), sampled.getTies(), sampled.getLosses(), sampled.getEquity() * sampled.getSamples(),
+                sampled.getEquitySquareSum());
+    }
+
+    void record(boolean beaten, int tiedOpponents) {
+        if (beaten) {
+            losses++;
+        } else if (tiedOpponents > 0) {
+            ties++;
+            double share = 1.0 / (tiedOpponents + 1);
+            equitySum += share;
+            equitySquareSum += share * share;
+        } else {
+            wins++;
+            equitySum += 1;
+            equitySquareSum += 1;
+        }
+    }
+
+    void add(EquityResult other) {
+        wins += other.wins;
+        ties += other.ties;
+        losses += other.losses;
+        equitySum += other.equitySum;
+        equitySquareSum += other.equitySquareSum;
+        exact &= other.exact;
+    }
+
+    void setExact(boolean exact) {
+        this.exact = exact;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    public long getTrials() {
+        return wins + ties + losses;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getTies() {
+        return ties;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public double getWinRate() {
+        return getTrials() == 0 ? 0 : (double) wins / getTrials();
+    }
+
+    public double getTieRate() {
+        return getTrials() == 0 ? 0 : (double) ties / getTrials();
+    }
+
+    public double getLossRate() {
+        return getTrials() == 0 ? 0 : (double) losses / getTrials();
+    }
+
+    public double getEquity() {
+        return getTrials() == 0 ? 0 : equitySum / getTrials();
+    }
+
+    // Half-width of the 95% interval around getEquity() as SimulationResult works it out, 0 when every trial was counted
+    public double getEquityErrorBound() {
+        return exact ? 0 : SimulationResult.equityErrorBound(getTrials(), equitySum, equitySquareSum);
+    }
+
+    double getEquitySquareSum() {
+        return equitySquareSum;
+    }
+
+    @Override
+    public String toString() {
+        if (exact) {
+            return String.format("Win: %.4f, Tie: %.4f, Loss: %.4f, Equity: %.4f (%d trials)",
+                    getWinRate(), getTieRate(), getLossRate(), getEquity(), getTrials());
+        }
+        return String.format("Win: %.4f, Tie: %.4f, Loss: %.4f, Equity: %.4f +/- %.4f (%d trials, sampled)",
+                getWinRate(), getTieRate(), getLossRate(), getEquity(), getEquityErrorBound(), getTrials());
+    }
+}
@@ -0,0 +1,24 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// Flight Recorder event around one batch of hand evaluations; one per hand would cost more than the evaluation itself.
+// Off by default since even batches come by the hundred thousand a second during an enumeration.
+@Name("poker.Evaluation")
+@Label("Hand Evaluation Batch")
+@Category({"Poker", "Evaluator"})
+@Description("One batch of hands through BatchEvaluator, or through the game rules during an enumeration")
+@Enabled(false)
+@Threshold("0 ns")
+@StackTrace(false)
+public class EvaluationEvent extends jdk.jfr.Event {
+    @Label("Evaluator")
+    public String evaluator;
+
+    @Label("Hands")
+    public int hands;
+}
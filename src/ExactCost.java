@@ -0,0 +1,70 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// What an exact answer for one spot would cost, priced the same way wherever the choice between enumerating and
+// sampling is made: units of exact work, and the slot of the measured nanoseconds per unit they are charged at.
+final class ExactCost {
+    static final ExactCost FREE = new ExactCost(0, 0); // already held by a table or cache
+    private static final int HEADS_UP_SLOT = GameRules.values().length;
+    private static final long MIN_TIMED_UNITS = 10_000; // small jobs are mostly fixed overhead and would skew the rate
+    // Nanoseconds per unit as double bits, refined after every timed run: one slot per GameRules ordinal for
+    // enumerating runouts, then one for heads-up equity, which evaluates an opponent holding per unit
+    private static final AtomicLongArray NANOS_PER_UNIT = new AtomicLongArray(new long[]{Double.doubleToLongBits(20),
+            Double.doubleToLongBits(30), Double.doubleToLongBits(1_000), Double.doubleToLongBits(100)});
+
+    private final long units; // Long.MAX_VALUE when the count does not fit in a long
+    private final int slot;
+
+    private ExactCost(long units, int slot) {
+        this.units = units;
+        this.slot = slot;
+    }
+
+    // Enumerating every runout of the board
+    static ExactCost distribution(long communityCards, long deckCards, GameRules rules) {
+        return new ExactCost(runouts(communityCards, deckCards), rules.ordinal());
+    }
+
+    // Heads-up Hold'em equity: the hero and every opponent holding on every runout. With wholeFlop the street
+    // cache works out the flop at once, which is what it costs before it can answer the turn or river.
+    static ExactCost headsUpEquity(long communityCards, long deckCards, boolean wholeFlop) {
+        int deckSize = Long.bitCount(deckCards);
+        int cardsToDeal = GameRules.BOARD_SIZE - Long.bitCount(communityCards);
+        if (wholeFlop) {
+            deckSize += Long.bitCount(communityCards) - 3;
+            cardsToDeal = 2;
+        }
+        long runouts = cardsToDeal < 0 ? 0 : Combination.calculateCombinations(deckSize, cardsToDeal);
+        return new ExactCost(saturatedProduct(runouts, 1 + Combination.calculateCombinations(deckSize - cardsToDeal, 2)), HEADS_UP_SLOT);
+    }
+
+    // Estimated nanoseconds at the current rate; infinite when the units saturated
+    double estimatedNanos() {
+        return units == Long.MAX_VALUE ? Double.POSITIVE_INFINITY : units * Double.longBitsToDouble(NANOS_PER_UNIT.get(slot));
+    }
+
+    boolean fitsBefore(long deadline) {
+        return estimatedNanos() <= deadline - System.nanoTime();
+    }
+
+    // Runs the exact work and folds its measured cost per unit into the estimate for the next decision
+    <T> T run(Supplier<T> work) {
+        long start = System.nanoTime();
+        T result = work.get();
+        long elapsed = System.nanoTime() - start;
+        if (units >= MIN_TIMED_UNITS && units != Long.MAX_VALUE) {
+            double previous = Double.longBitsToDouble(NANOS_PER_UNIT.get(slot));
+            NANOS_PER_UNIT.set(slot, Double.doubleToLongBits((previous + (double) elapsed / units) / 2));
+        }
+        return result;
+    }
+
+    private static long saturatedProduct(long first, long second) {
+        return second != 0 && first > Long.MAX_VALUE / second ? Long.MAX_VALUE : first * second;
+    }
+
+    private static long runouts(long communityCards, long deckCards) {
+        int cardsToDeal = GameRules.BOARD_SIZE - Long.bitCount(communityCards);
+        return cardsToDeal < 0 ? 0 : Combination.calculateCombinations(Long.bitCount(deckCards), cardsToDeal);
+    }
+}
@@ -6,32 +6,29 @@ public class Fraction {
         this.setDenominator(denominator);
         //this.cancel();
     }
-    /*
-    public void cancel() // simplifies the fraction
-
-    {
+    public void cancel() { // simplifies the fraction
         long gcd = gcd(this.getNumerator(), this.getDenominator());
-        this.setNumerator(this.getNumerator() / gcd);
-        this.setDenominator(this.getDenominator() / gcd);
+        if (gcd > 1) {
+            this.setNumerator(this.getNumerator() / gcd);
+            this.setDenominator(this.getDenominator() / gcd);
+        }
     }
 
-     */
-
-    // calculate the GCD to simplify a fraction
+    // calculate the GCD to simplify a fraction (Euclid's algorithm, logarithmic in the smaller number)
     private static long gcd(long n, long m) {
-        long gcd;
-        if (n == m)
-            gcd = n;
-        else {
-            while (n != m) {
-                if (n < m)
-                    m = m - n;
-                else
-                    n = n - m;
-            }
+        n = Math.abs(n);
+        m = Math.abs(m);
+        while (m != 0) {
+            long remainder = n % m;
+            n = m;
+            m = remainder;
         }
         return n;
     }
+
+    public double toDouble() {
+        return (double) numerator / denominator;
+    }
     // getters and setters
     public long getNumerator() {
         return numerator;
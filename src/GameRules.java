@@ -0,0 +1,212 @@
+import java.util.Locale;
+
+// What changes between the poker variants the engine supports: the cards in the deck, how many hole cards a player
+// gets and the order the hand types rank in. evaluate() returns values that compare correctly within one game;
+// getHandType() turns such a value back into the HandType it stands for.
+public enum GameRules {
+    HOLDEM("Texas Hold'em", CardSet.FULL_DECK, 2, ProbabilityCalculator.HandType.values()) {
+        @Override
+        public int evaluate(long holeCards, long boardCards) {
+            return HandEvaluator.evaluate(holeCards | boardCards);
+        }
+    },
+    // 36 cards, six to ace. The ace also plays below the six (A-6-7-8-9), and a flush beats a full house
+    SHORT_DECK("Short Deck Hold'em", shortDeck(), 2, shortDeckRanking()) {
+        @Override
+        public int evaluate(long holeCards, long boardCards) {
+            long cards = holeCards | boardCards;
+            int value = HandEvaluator.evaluate(cards);
+            int category = value >>> HandEvaluator.CATEGORY_SHIFT;
+            // A 5-high straight cannot happen without the low cards, so its values stand in for the A-6-7-8-9 one
+            if (category < STRAIGHT_FLUSH_CATEGORY && hasShortWheelFlush(cards)) {
+                value = LowStraights.STRAIGHT_FLUSH;
+            } else if (category < STRAIGHT_CATEGORY && hasShortWheel(cards)) {
+                value = LowStraights.STRAIGHT;
+            }
+            return rankedValue(value);
+        }
+    },
+    // Four hole cards, of which exactly two play together with exactly three from the board
+    OMAHA("Omaha", CardSet.FULL_DECK, 4, ProbabilityCalculator.HandType.values()) {
+        @Override
+        public int evaluate(long holeCards, long boardCards) {
+            return evaluateOmaha(holeCards, boardCards);
+        }
+    };
+
+    public static final int BOARD_SIZE = 5;
+    private static final int STRAIGHT_CATEGORY = ProbabilityCalculator.HandType.STRAIGHT.ordinal();
+    private static final int STRAIGHT_FLUSH_CATEGORY = ProbabilityCalculator.HandType.STRAIGHT_FLUSH.ordinal();
+    private static final int RANK_BITS = (1 << HandEvaluator.CATEGORY_SHIFT) - 1;
+    private static final int SHORT_WHEEL = valueBits(Card.Value.ACE, Card.Value.SIX, Card.Value.SEVEN, Card.Value.EIGHT, Card.Value.NINE);
+    private static final int OMAHA_HOLE_PAIRS = 6; // 4 choose 2
+    private static final int OMAHA_BOARD_CARDS = 3;
+
+    private final String displayName;
+    private final long deckCards;
+    private final int holeCards;
+    private final ProbabilityCalculator.HandType[] ranking; // weakest first
+    private final int[] categoryRanks = new int[ProbabilityCalculator.HandType.values().length]; // by HandType ordinal
+
+    GameRules(String displayName, long deckCards, int holeCards, ProbabilityCalculator.HandType[] ranking) {
+        this.displayName = displayName;
+        this.deckCards = deckCards;
+        this.holeCards = holeCards;
+        this.ranking = ranking;
+        for (int i = 0; i < ranking.length; i++) {
+            categoryRanks[ranking[i].ordinal()] = i;
+        }
+    }
+
+    // Strength of the best hand the hole cards make with the board; only compare values of the same game
+    public abstract int evaluate(long holeCards, long boardCards);
+
+    public ProbabilityCalculator.HandType getHandType(int handValue) {
+        return ranking[handValue >>> HandEvaluator.CATEGORY_SHIFT];
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public long getDeckCards() {
+        return deckCards;
+    }
+
+    public int getDeckSize() {
+        return Long.bitCount(deckCards);
+    }
+
+    public int getHoleCards() {
+        return holeCards;
+    }
+
+    public ProbabilityCalculator.HandType[] getRanking() {
+        return ranking.clone();
+    }
+
+    // "holdem", "short-deck", "SHORT_DECK", "omaha" and so on
+    public static GameRules fromName(String name) {
+        String normalized = name.trim().toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_');
+        for (GameRules rules : values()) {
+            if (rules.name().equals(normalized) || rules.name().replace("_", "").equals(normalized.replace("_", ""))) {
+                return rules;
+            }
+        }
+        throw new IllegalArgumentException("Unknown game " + name + "; use holdem, short-deck or omaha.");
+    }
+
+    // The HandEvaluator category moved to this game's place in the ranking, the rank inside it kept
+    int rankedValue(int value) {
+        return categoryRanks[value >>> HandEvaluator.CATEGORY_SHIFT] << HandEvaluator.CATEGORY_SHIFT | (value & RANK_BITS);
+    }
+
+    // Every hole pair is bounded by the best hand of the pair and the whole board, which no five of those cards
+    // can beat. Pairs are tried strongest bound first, and once the best hand found reaches the next bound the
+    // remaining pairs cannot win and their 10 board triples are skipped.
+    private static int evaluateOmaha(long holeCards, long boardCards) {
+        if (Long.bitCount(holeCards) != 4 || Long.bitCount(boardCards) < OMAHA_BOARD_CARDS || Long.bitCount(boardCards) > BOARD_SIZE) {
+            throw new IllegalArgumentException("Omaha needs four hole cards and three to five board cards.");
+        }
+        long[] pairs = new long[OMAHA_HOLE_PAIRS];
+        int[] bounds = new int[OMAHA_HOLE_PAIRS];
+        int count = 0;
+        for (long first = holeCards; first != 0; first &= first - 1) {
+            for (long second = first & (first - 1); second != 0; second &= second - 1) {
+                long pair = Long.lowestOneBit(first) | Long.lowestOneBit(second);
+                pairs[count] = pair;
+                bounds[count] = HandEvaluator.evaluate(pair | boardCards);
+                count++;
+            }
+        }
+        boolean exact = Long.bitCount(boardCards) == OMAHA_BOARD_CARDS; // the pair and the flop are the only five cards
+        int best = -1;
+        for (int tried = 0; tried < count; tried++) {
+            int next = tried;
+            for (int i = tried + 1; i < count; i++) {
+                if (bounds[i] > bounds[next]) {
+                    next = i;
+                }
+            }
+            if (bounds[next] <= best) {
+                break;
+            }
+            long pair = pairs[next];
+            int bound = bounds[next];
+            pairs[next] = pairs[tried];
+            bounds[next] = bounds[tried];
+            best = exact ? bound : Math.max(best, bestWithBoardTriple(pair, boardCards, bound));
+        }
+        return best;
+    }
+
+    private static int bestWithBoardTriple(long pair, long boardCards, int bound) {
+        int best = -1;
+        for (long first = boardCards; first != 0; first &= first - 1) {
+            for (long second = first & (first - 1); second != 0; second &= second - 1) {
+                for (long third = second & (second - 1); third != 0; third &= third - 1) {
+                    long triple = Long.lowestOneBit(first) | Long.lowestOneBit(second) | Long.lowestOneBit(third);
+                    best = Math.max(best, HandEvaluator.evaluate(pair | triple));
+                    if (best == bound) {
+                        return best; // nothing with this pair can do better
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static boolean hasShortWheel(long cards) {
+        int values = 0;
+        for (int suit = 0; suit < CardSet.SUIT_COUNT; suit++) {
+            values |= CardSet.suitMask(cards, suit);
+        }
+        return (values & SHORT_WHEEL) == SHORT_WHEEL;
+    }
+
+    private static boolean hasShortWheelFlush(long cards) {
+        for (int suit = 0; suit < CardSet.SUIT_COUNT; suit++) {
+            if ((CardSet.suitMask(cards, suit) & SHORT_WHEEL) == SHORT_WHEEL) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int valueBits(Card.Value... values) {
+        int bits = 0;
+        for (Card.Value value : values) {
+            bits |= 1 << value.ordinal();
+        }
+        return bits;
+    }
+
+    private static long shortDeck() {
+        long cards = 0;
+        for (Card.Value value : Card.Value.values()) {
+            if (value.compareTo(Card.Value.SIX) >= 0) {
+                cards |= CardSet.valueMask(value.ordinal());
+            }
+        }
+        return cards;
+    }
+
+    private static ProbabilityCalculator.HandType[] shortDeckRanking() {
+        ProbabilityCalculator.HandType[] ranking = ProbabilityCalculator.HandType.values();
+        int flush = ProbabilityCalculator.HandType.FLUSH.ordinal();
+        int fullHouse = ProbabilityCalculator.HandType.FULL_HOUSE.ordinal();
+        ranking[flush] = ProbabilityCalculator.HandType.FULL_HOUSE;
+        ranking[fullHouse] = ProbabilityCalculator.HandType.FLUSH;
+        return ranking;
+    }
+
+    // Hold'em values of the 5-high straight and straight flush, looked up once the evaluator is ready
+    private static final class LowStraights {
+        static final int STRAIGHT = HandEvaluator.evaluate(cards("Ah2d3c4s5h"));
+        static final int STRAIGHT_FLUSH = HandEvaluator.evaluate(cards("Ah2h3h4h5h"));
+
+        private static long cards(String shorthand) {
+            return CardParser.parseCards(shorthand);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+public class HandDistribution {
+    private static final ProbabilityCalculator.HandType[] HAND_TYPES = ProbabilityCalculator.HandType.values();
+    private final long[] handTypeCounts; // runouts ending in each HandType, indexed by ordinal
+    private final long total; // shared denominator for every HandType
+
+    public HandDistribution(long[] handTypeCounts) {
+        if (handTypeCounts == null || handTypeCounts.length != HAND_TYPES.length) {
+            throw new IllegalArgumentException("Need one count per HandType.");
+        }
+        this.handTypeCounts = handTypeCounts.clone();
+        long sum = 0;
+        for (long count : handTypeCounts) {
+            sum += count;
+        }
+        total = sum;
+    }
+
+    public long getCount(ProbabilityCalculator.HandType handType) {
+        return handTypeCounts[handType.ordinal()];
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Fraction getFraction(ProbabilityCalculator.HandType handType) { // reduced only when somebody asks for it
+        Fraction fraction = new Fraction(handTypeCounts[handType.ordinal()], total);
+        if (total != 0) {
+            fraction.cancel();
+        }
+        return fraction;
+    }
+
+    public double getProbability(ProbabilityCalculator.HandType handType) {
+        return total == 0 ? 0 : (double) handTypeCounts[handType.ordinal()] / total;
+    }
+
+    @Override
+    public String toString() {
+        String result = "Runouts: " + total;
+        for (ProbabilityCalculator.HandType handType : HAND_TYPES) {
+            result += "\n" + handType + ": " + getFraction(handType);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+import jdk.jfr.FlightRecorder;
+
+public class HandEnumerator {
+    private static final int BOARD_SIZE = 5;
+    private static final int VALUE_COUNT = Card.Value.values().length;
+    private static final ProbabilityCalculator.HandType[] HAND_TYPES = ProbabilityCalculator.HandType.values();
+    private static final LatencyHistogram ENUMERATION_LATENCY = LatencyHistogram.named("enumerator.enumerate");
+    private static final int BATCH_SIZE = 256; // runouts gathered before they go through the batch evaluator
+
+    private final GameRules rules;
+    private final long handCards;
+    private final long knownCards; // the player's hand and the community cards already dealt
+    private final long[] deckBits; // one single-bit mask per card still in the deck
+    private final int cardsToDeal;
+    private long[] handTypeCounts; // working counters of the current walk
+    private long[] pendingRunouts; // leaves of the walk waiting for the next batch evaluation
+    private int[] pendingValues;
+    private int pendingCount;
+
+    public HandEnumerator(long handCards, long communityCards, long deckCards) {
+        this(handCards, communityCards, deckCards, GameRules.HOLDEM);
+    }
+
+    public HandEnumerator(long handCards, long communityCards, long deckCards, GameRules rules) {
+        if ((handCards & communityCards) != 0 || ((handCards | communityCards) & deckCards) != 0) {
+            throw new IllegalArgumentException("Hand, community cards and deck must not share cards.");
+        }
+        if (rules != GameRules.HOLDEM && (Long.bitCount(handCards) != rules.getHoleCards()
+                || ((handCards | communityCards | deckCards) & ~rules.getDeckCards()) != 0)) {
+            throw new IllegalArgumentException(rules.getDisplayName() + " needs " + rules.getHoleCards()
+                    + " hole cards and only cards from its own deck.");
+        }
+        this.rules = rules;
+        this.handCards = handCards;
+        knownCards = handCards | communityCards;
+        cardsToDeal = BOARD_SIZE - Long.bitCount(communityCards);
+
+        // Split the deck into single-card masks once so the loop only ORs longs together
+        deckBits = new long[Long.bitCount(deckCards)];
+        int index = 0;
+        for (long remaining = deckCards; remaining != 0; remaining &= remaining - 1) {
+            deckBits[index++] = Long.lowestOneBit(remaining);
+        }
+    }
+
+    // Walks every remaining runout once and counts how many of them end in each HandType
+    public HandDistribution enumerate() {
+        EnumerationEvent event = FlightRecorder.isInitialized() ? new EnumerationEvent() : null; // no JFR start-up cost without a recorder
+        if (event != null) {
+            event.begin();
+        }
+        long start = System.nanoTime();
+        handTypeCounts = new long[HAND_TYPES.length];
+        pendingRunouts = new long[BATCH_SIZE];
+        pendingValues = new int[BATCH_SIZE];
+        pendingCount = 0;
+        if (cardsToDeal >= 0 && cardsToDeal <= deckBits.length) {
+            dealFrom(knownCards, 0, cardsToDeal);
+            evaluatePending();
+        }
+        HandDistribution distribution = new HandDistribution(handTypeCounts);
+        ENUMERATION_LATENCY.record(System.nanoTime() - start);
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.communityCards = BOARD_SIZE - cardsToDeal;
+                event.deckCards = deckBits.length;
+                event.runouts = distribution.getTotal();
+                event.commit();
+            }
+        }
+        return distribution;
+    }
+
+    private void dealFrom(long cards, int start, int cardsLeft) {
+        if (cardsLeft == 0) {
+            pendingRunouts[pendingCount++] = cards;
+            if (pendingCount == BATCH_SIZE) {
+                evaluatePending();
+            }
+            return;
+        }
+        // Leave enough cards behind for the rest of the runout
+        for (int i = start; i <= deckBits.length - cardsLeft; i++) {
+            dealFrom(cards | deckBits[i], i + 1, cardsLeft - 1);
+        }
+    }
+
+    private void evaluatePending() {
+        if (rules == GameRules.HOLDEM) {
+            BatchEvaluator.evaluate(pendingRunouts, pendingValues, pendingCount);
+            for (int i = 0; i < pendingCount; i++) {
+                handTypeCounts[pendingValues[i] >>> HandEvaluator.CATEGORY_SHIFT]++;
+            }
+        } else { // the other games pick their own cards out of the runout, so each one goes through the rules
+            EvaluationEvent event = BatchEvaluator.beginBatch(); // BatchEvaluator records the Hold'em batches itself
+            for (int i = 0; i < pendingCount; i++) {
+                int handValue = rules.evaluate(handCards, pendingRunouts[i] & ~handCards);
+                handTypeCounts[rules.getHandType(handValue).ordinal()]++;
+            }
+            BatchEvaluator.commitBatch(event, rules.name(), pendingCount);
+        }
+        pendingCount = 0;
+    }
+
+    // Returns the value index of the top card of the highest straight in the mask, or -1 if there is none
+    public static int highestStraight(int valueMask) {
+        int withLowAce = (valueMask << 1) | ((valueMask >>> (VALUE_COUNT - 1)) & 1); // the ace also plays below the two
+        int runs = withLowAce & (withLowAce >>> 1) & (withLowAce >>> 2) & (withLowAce >>> 3) & (withLowAce >>> 4);
+        if (runs == 0) {
+            return -1;
+        }
+        return 31 - Integer.numberOfLeadingZeros(runs) + 3; // lowest bit of the run, shifted back and moved to the top card
+    }
+}
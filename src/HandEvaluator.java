@@ -0,0 +1,339 @@
+import java.io.DataOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class HandEvaluator {
+    // A hand value is (HandType ordinal << 12) | rank inside that type, so bigger values are stronger hands
+    public static final int CATEGORY_SHIFT = 12;
+    public static final String TABLE_FILE_PROPERTY = "handranks.file";
+    private static final String DEFAULT_TABLE_FILE = "handranks.dat";
+    // Without -Dhandranks.file the tables live in a per-user cache, built there on first use
+    private static final Path CACHE_FILE = Paths.get(System.getProperty("user.home"), ".cache", "poker-calculator", DEFAULT_TABLE_FILE);
+    private static final int MAGIC = 0x484E4452; // "HNDR"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 6 * Integer.BYTES; // magic, version and the four table lengths
+    private static final int MIN_CARDS = 5;
+    private static final int MAX_CARDS = 7;
+    private static final int VALUE_COUNT = CardSet.VALUE_COUNT;
+    private static final ProbabilityCalculator.HandType[] HAND_TYPES = ProbabilityCalculator.HandType.values();
+    // What count copies of a value add to the multiset index when position cards of lower values came before
+    private static final int[][][] MULTISET_OFFSETS = new int[VALUE_COUNT][MAX_CARDS + 1][CardSet.SUIT_COUNT + 1];
+
+    static {
+        for (int value = 0; value < VALUE_COUNT; value++) {
+            for (int position = 0; position <= MAX_CARDS; position++) {
+                for (int count = 1; count <= CardSet.SUIT_COUNT && position + count <= MAX_CARDS; count++) {
+                    int copy = position + count - 1;
+                    MULTISET_OFFSETS[value][position][count] = MULTISET_OFFSETS[value][position][count - 1] + (int) Combination.calculateCombinations(value + copy, copy + 1);
+                }
+            }
+        }
+    }
+
+    // Mapped on first use, so the generator below runs without needing a table first
+    private static class Tables {
+        private static final CharBuffer FLUSH; // indexed by the 13-bit value mask of the flush suit
+        private static final CharBuffer[] VALUES = new CharBuffer[MAX_CARDS + 1]; // indexed by value multiset, per card count
+
+        static {
+            String configuredFile = System.getProperty(TABLE_FILE_PROPERTY);
+            Path tableFile = configuredFile != null ? Paths.get(configuredFile) : CACHE_FILE;
+            try {
+                if (!isCurrentTableFile(tableFile)) {
+                    if (configuredFile != null) { // a file someone chose is never overwritten behind their back
+                        throw new IllegalStateException("No current hand rank table at " + tableFile
+                                + "; generate it with: java HandEvaluator " + tableFile);
+                    }
+                    Files.createDirectories(tableFile.getParent());
+                    writeTableFile(tableFile);
+                }
+                try (FileChannel channel = FileChannel.open(tableFile, StandardOpenOption.READ)) {
+                    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    int[] lengths = new int[4];
+                    for (int i = 0; i < lengths.length; i++) {
+                        lengths[i] = mapped.getInt(2 * Integer.BYTES + i * Integer.BYTES);
+                    }
+                    int offset = HEADER_BYTES;
+                    FLUSH = charView(mapped, offset, lengths[0]);
+                    offset += lengths[0] * Character.BYTES;
+                    for (int cards = MIN_CARDS; cards <= MAX_CARDS; cards++) {
+                        int length = lengths[cards - MIN_CARDS + 1];
+                        VALUES[cards] = charView(mapped, offset, length);
+                        offset += length * Character.BYTES;
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not load the hand rank table from " + tableFile
+                        + "; point -D" + TABLE_FILE_PROPERTY + " at one made with: java HandEvaluator <file>", e);
+            }
+        }
+    }
+
+    // Strength of the best five-card hand among 5, 6 or 7 cards given as a CardSet mask
+    // No Flight Recorder event per call: evaluations run tens of millions a second, so BatchEvaluator and
+    // HandEnumerator record whole batches instead
+    public static int evaluate(long cards) {
+        int cardCount = Long.bitCount(cards);
+        if (cardCount < MIN_CARDS || cardCount > MAX_CARDS) {
+            throw new IllegalArgumentException("Can only evaluate 5 to 7 cards, got " + cardCount);
+        }
+        int first = CardSet.suitMask(cards, 0);
+        int second = CardSet.suitMask(cards, 1);
+        int third = CardSet.suitMask(cards, 2);
+        int fourth = CardSet.suitMask(cards, 3);
+        // With seven cards or fewer a flush beats anything the other cards can make
+        if (Integer.bitCount(first) >= 5) {
+            return Tables.FLUSH.get(first);
+        } else if (Integer.bitCount(second) >= 5) {
+            return Tables.FLUSH.get(second);
+        } else if (Integer.bitCount(third) >= 5) {
+            return Tables.FLUSH.get(third);
+        } else if (Integer.bitCount(fourth) >= 5) {
+            return Tables.FLUSH.get(fourth);
+        }
+
+        // Dense index of the value multiset (suits ignored) in colex order, only visiting the values present
+        int index = 0;
+        int position = 0;
+        for (int present = first | second | third | fourth; present != 0; present &= present - 1) {
+            int value = Integer.numberOfTrailingZeros(present);
+            int count = ((first >>> value) & 1) + ((second >>> value) & 1) + ((third >>> value) & 1) + ((fourth >>> value) & 1);
+            index += MULTISET_OFFSETS[value][position][count];
+            position += count;
+        }
+        return Tables.VALUES[cardCount].get(index);
+    }
+
+    // Raw table access for BatchEvaluator, which computes the same indices without walking the values
+    static int flushValue(int suitMask) {
+        return Tables.FLUSH.get(suitMask);
+    }
+
+    static int multisetValue(int cardCount, int index) {
+        return Tables.VALUES[cardCount].get(index);
+    }
+
+    // MULTISET_OFFSETS flattened to [(value * (MAX_CARDS + 1) + position) * (SUIT_COUNT + 1) + count]
+    static int[] flatMultisetOffsets() {
+        int[] flat = new int[VALUE_COUNT * (MAX_CARDS + 1) * (CardSet.SUIT_COUNT + 1)];
+        int at = 0;
+        for (int[][] positions : MULTISET_OFFSETS) {
+            for (int[] counts : positions) {
+                System.arraycopy(counts, 0, flat, at, counts.length);
+                at += counts.length;
+            }
+        }
+        return flat;
+    }
+
+    public static int evaluate(long handCards, long communityCards) {
+        return evaluate(handCards | communityCards);
+    }
+
+    public static ProbabilityCalculator.HandType getHandType(int handValue) {
+        return HAND_TYPES[handValue >>> CATEGORY_SHIFT];
+    }
+
+    private static CharBuffer charView(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(offset);
+        slice.limit(offset + length * Character.BYTES);
+        return slice.slice().asCharBuffer();
+    }
+
+    private static boolean isCurrentTableFile(Path tableFile) throws IOException {
+        if (!Files.isRegularFile(tableFile) || Files.size(tableFile) < HEADER_BYTES) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(tableFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return false;
+            }
+            long expectedSize = HEADER_BYTES;
+            for (int i = 0; i < 4; i++) {
+                expectedSize += (long) header.getInt() * Character.BYTES;
+            }
+            return channel.size() == expectedSize;
+        }
+    }
+
+    // Writes the tables to a file for -Dhandranks.file:
+    //   java HandEvaluator [output file]
+    public static void main(String[] args) throws IOException {
+        Path tableFile = Paths.get(args.length > 0 ? args[0] : DEFAULT_TABLE_FILE);
+        long start = System.nanoTime();
+        writeTableFile(tableFile);
+        System.out.printf("Wrote %s in %.1f s%n", tableFile, (System.nanoTime() - start) / 1e9);
+    }
+
+    // Builds every table once with the slow direct rules, then writes them next to a versioned header
+    private static void writeTableFile(Path tableFile) throws IOException {
+        int[] flushRaw = new int[1 << VALUE_COUNT];
+        for (int mask = 0; mask < flushRaw.length; mask++) {
+            if (Integer.bitCount(mask) >= 5) {
+                flushRaw[mask] = rawFlushStrength(mask);
+            }
+        }
+        int[][] valueRaw = new int[MAX_CARDS + 1][];
+        for (int cards = MIN_CARDS; cards <= MAX_CARDS; cards++) {
+            valueRaw[cards] = new int[(int) Combination.calculateCombinations(VALUE_COUNT + cards - 1, cards)];
+            fillValueTable(valueRaw[cards], new int[VALUE_COUNT], 0, cards);
+        }
+
+        // Replace the raw strengths with dense ranks inside each hand type so they fit in a char
+        List<int[]> tables = new ArrayList<>();
+        tables.add(flushRaw);
+        for (int cards = MIN_CARDS; cards <= MAX_CARDS; cards++) {
+            tables.add(valueRaw[cards]);
+        }
+        int[] distinct = tables.stream().flatMapToInt(Arrays::stream).filter(raw -> raw != 0).distinct().sorted().toArray();
+        int[] categoryStart = new int[HAND_TYPES.length];
+        Arrays.fill(categoryStart, -1);
+        for (int i = 0; i < distinct.length; i++) {
+            int category = distinct[i] >>> 20;
+            if (categoryStart[category] < 0) {
+                categoryStart[category] = i;
+            }
+        }
+
+        Path temporaryFile = tableFile.resolveSibling(tableFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (int[] table : tables) {
+                out.writeInt(table.length);
+            }
+            for (int[] table : tables) {
+                for (int raw : table) {
+                    int value = 0;
+                    if (raw != 0) {
+                        int category = raw >>> 20;
+                        value = (category << CATEGORY_SHIFT) | (Arrays.binarySearch(distinct, raw) - categoryStart[category]);
+                    }
+                    out.writeChar(value);
+                }
+            }
+        }
+        Files.move(temporaryFile, tableFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void fillValueTable(int[] table, int[] valueCounts, int value, int cardsLeft) {
+        if (value == VALUE_COUNT) {
+            if (cardsLeft == 0) {
+                int index = 0;
+                int position = 0;
+                for (int v = 0; v < VALUE_COUNT; v++) {
+                    for (int count = 0; count < valueCounts[v]; count++) {
+                        index += (int) Combination.calculateCombinations(v + position, position + 1);
+                        position++;
+                    }
+                }
+                table[index] = rawValueStrength(valueCounts);
+            }
+            return;
+        }
+        for (int count = 0; count <= Math.min(CardSet.SUIT_COUNT, cardsLeft); count++) {
+            valueCounts[value] = count;
+            fillValueTable(table, valueCounts, value + 1, cardsLeft - count);
+        }
+        valueCounts[value] = 0;
+    }
+
+    // Raw strength: hand type in the top bits, then up to five deciding values, most significant first
+    private static int raw(ProbabilityCalculator.HandType handType, int... values) {
+        int raw = handType.ordinal();
+        for (int i = 0; i < 5; i++) {
+            raw = (raw << 4) | (i < values.length ? values[i] : 0);
+        }
+        return raw;
+    }
+
+    private static int rawFlushStrength(int suitMask) {
+        int straightHigh = HandEnumerator.highestStraight(suitMask);
+        if (straightHigh == VALUE_COUNT - 1) {
+            return raw(ProbabilityCalculator.HandType.ROYAL_FLUSH);
+        } else if (straightHigh >= 0) {
+            return raw(ProbabilityCalculator.HandType.STRAIGHT_FLUSH, straightHigh);
+        }
+        return raw(ProbabilityCalculator.HandType.FLUSH, withKickers(suitMask, 5));
+    }
+
+    private static int rawValueStrength(int[] valueCounts) {
+        int present = 0;
+        int quads = -1;
+        int trips = -1;
+        int secondTrips = -1;
+        int pair = -1;
+        int secondPair = -1;
+        for (int value = VALUE_COUNT - 1; value >= 0; value--) { // from ACE down so the first match is the highest
+            int count = valueCounts[value];
+            if (count > 0) {
+                present |= 1 << value;
+            }
+            if (count == 4 && quads < 0) {
+                quads = value;
+            } else if (count == 3) {
+                if (trips < 0) {
+                    trips = value;
+                } else if (secondTrips < 0) {
+                    secondTrips = value;
+                }
+            } else if (count == 2) {
+                if (pair < 0) {
+                    pair = value;
+                } else if (secondPair < 0) {
+                    secondPair = value;
+                }
+            }
+        }
+
+        if (quads >= 0) {
+            return raw(ProbabilityCalculator.HandType.FOUR_OF_A_KIND, withKickers(present & ~(1 << quads), 1, quads));
+        }
+        if (trips >= 0 && (secondTrips >= 0 || pair >= 0)) {
+            return raw(ProbabilityCalculator.HandType.FULL_HOUSE, trips, Math.max(secondTrips, pair));
+        }
+        int straightHigh = HandEnumerator.highestStraight(present);
+        if (straightHigh >= 0) {
+            return raw(ProbabilityCalculator.HandType.STRAIGHT, straightHigh);
+        }
+        if (trips >= 0) {
+            return raw(ProbabilityCalculator.HandType.THREE_OF_A_KIND, withKickers(present & ~(1 << trips), 2, trips));
+        }
+        if (secondPair >= 0) {
+            int kickers = present & ~(1 << pair) & ~(1 << secondPair);
+            return raw(ProbabilityCalculator.HandType.TWO_PAIR, withKickers(kickers, 1, pair, secondPair));
+        }
+        if (pair >= 0) {
+            return raw(ProbabilityCalculator.HandType.PAIR, withKickers(present & ~(1 << pair), 3, pair));
+        }
+        return raw(ProbabilityCalculator.HandType.HIGH_CARD, withKickers(present, 5));
+    }
+
+    // The leading values followed by the highest count values left in the mask
+    private static int[] withKickers(int valueMask, int count, int... leading) {
+        int[] values = Arrays.copyOf(leading, leading.length + count);
+        for (int i = leading.length; i < values.length && valueMask != 0; i++) {
+            values[i] = 31 - Integer.numberOfLeadingZeros(valueMask);
+            valueMask &= ~(1 << values[i]);
+        }
+        return values;
+    }
+}
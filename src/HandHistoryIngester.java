@@ -0,0 +1,496 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// Streams PokerStars-style hand-history text through memory-mapped windows, one window at a time, and compares
+// the equity the hero had at the start of each street (against random hands of the players still in)
+// with the share of the pot the hero actually won.
+//   java HandHistoryIngester <file|directory>... [--threads N] [--samples N]
+// Lines are parsed as bytes on the reading thread; equities are worked out by a fixed pool, and at most
+// two batches per worker are queued, so memory stays bounded however large the input is.
+public class HandHistoryIngester {
+    private static final String[] STREETS = {"PRE_FLOP", "FLOP", "TURN", "RIVER"};
+    private static final int WINDOW_BYTES = 64 << 20; // mapped at once; a window always ends on a line break
+    private static final int BATCH_SIZE = 256; // decisions handed to a worker at a time
+    private static final int BATCHES_PER_THREAD = 2;
+    private static final long PROGRESS_NANOS = 5_000_000_000L;
+    private static final int PROGRESS_CHECK_LINES = 1 << 16; // lines between two clock reads
+
+    private static final byte[] HAND_START = ascii("PokerStars ");
+    private static final byte[] SEAT = ascii("Seat ");
+    private static final byte[] SITTING_OUT = ascii("is sitting out");
+    private static final byte[] HOLE_CARDS = ascii("*** HOLE CARDS ***");
+    private static final byte[] DEALT_TO = ascii("Dealt to ");
+    private static final byte[] FLOP = ascii("*** FLOP ***");
+    private static final byte[] TURN = ascii("*** TURN ***");
+    private static final byte[] RIVER = ascii("*** RIVER ***");
+    private static final byte[] SUMMARY = ascii("*** SUMMARY ***");
+    private static final byte[] FOLDS = ascii(": folds");
+    private static final byte[] COLLECTED = ascii(" collected ");
+    private static final byte[] TOTAL_POT = ascii("Total pot ");
+
+    private final int threads;
+    private final long samples;
+    private final ExecutorService workers;
+    private final Semaphore batchPermits; // a batch takes one before it is queued and gives it back when done
+    private final LongAdder[] decisionCounts = new LongAdder[STREETS.length];
+    private final DoubleAdder[] expectedSums = new DoubleAdder[STREETS.length];
+    private final DoubleAdder[] realizedSums = new DoubleAdder[STREETS.length];
+    private final DoubleAdder[] differenceSquareSums = new DoubleAdder[STREETS.length];
+    private final LongAdder failedDecisions = new LongAdder();
+
+    // Reading-thread state: totals, the batch being filled and the hand being parsed
+    private long lines;
+    private long bytes;
+    private long hands;
+    private long longLines;
+    private boolean skippingLine; // the rest of an overlong line is dropped up to its line break
+    private Path progressFile; // progress of the file being read, reported to stderr every PROGRESS_NANOS
+    private long progressSize;
+    private long progressStartNanos;
+    private long progressStartLines;
+    private long nextProgress;
+    private Batch batch = new Batch();
+    private boolean inHand;
+    private boolean dealt; // past the hole cards, so seat lines belong to the summary
+    private int seats;
+    private int activePlayers;
+    private byte[] hero;
+    private boolean heroFolded;
+    private long heroCards;
+    private double collected;
+    private double totalPot;
+    private final long[] handBoards = new long[STREETS.length];
+    private final byte[] handOpponents = new byte[STREETS.length];
+    private int handStreets;
+
+    public HandHistoryIngester(int threads, long samples) {
+        if (threads <= 0 || samples <= 0) {
+            throw new IllegalArgumentException("Threads and samples must be positive.");
+        }
+        this.threads = threads;
+        this.samples = samples;
+        workers = Executors.newFixedThreadPool(threads);
+        batchPermits = new Semaphore(threads * BATCHES_PER_THREAD);
+        for (int i = 0; i < STREETS.length; i++) {
+            decisionCounts[i] = new LongAdder();
+            expectedSums[i] = new DoubleAdder();
+            realizedSums[i] = new DoubleAdder();
+            differenceSquareSums[i] = new DoubleAdder();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<Path> inputs = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        long samples = 5_000;
+        for (int i = 0; i < args.length; i++) {
+            if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if ("--samples".equals(args[i]) && i + 1 < args.length) {
+                samples = Long.parseLong(args[++i]);
+            } else if (args[i].startsWith("--")) {
+                System.err.println("Unknown option " + args[i]);
+                System.exit(2);
+            } else {
+                inputs.add(Paths.get(args[i]));
+            }
+        }
+        if (inputs.isEmpty()) {
+            System.err.println("Usage: java HandHistoryIngester <file|directory>... [--threads N] [--samples N]");
+            System.exit(2);
+        }
+        HandHistoryIngester ingester = new HandHistoryIngester(threads, samples);
+        long start = System.nanoTime();
+        try {
+            for (Path input : inputs) {
+                ingester.ingestAll(input);
+            }
+        } finally {
+            ingester.finish();
+        }
+        System.out.print(ingester.report(System.nanoTime() - start));
+    }
+
+    // A file, or every regular file below a directory in name order
+    public void ingestAll(Path input) throws IOException {
+        if (!Files.isDirectory(input)) {
+            ingest(input);
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(input)) {
+            paths.filter(Files::isRegularFile).sorted().forEach(files::add);
+        }
+        for (Path file : files) {
+            ingest(file);
+        }
+    }
+
+    public void ingest(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            progressFile = file;
+            progressSize = size;
+            progressStartNanos = System.nanoTime();
+            progressStartLines = lines;
+            nextProgress = progressStartNanos + PROGRESS_NANOS;
+            skippingLine = false;
+            while (position < size) {
+                long length = Math.min(WINDOW_BYTES, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean last = position + length == size;
+                int consumed = parseLines(window, position, (int) length, last);
+                if (consumed == 0) { // a single line longer than a window; drop it up to its line break
+                    consumed = (int) length;
+                    skippingLine = true;
+                    longLines++;
+                }
+                position += consumed;
+                bytes += consumed;
+            }
+        }
+        finishHand(); // files are independent; a hand never spans two of them
+    }
+
+    // Waits for every queued decision and stops the workers
+    public void finish() throws InterruptedException {
+        submitBatch();
+        batchPermits.acquire(threads * BATCHES_PER_THREAD);
+        batchPermits.release(threads * BATCHES_PER_THREAD);
+        workers.shutdown();
+    }
+
+    // Parses the whole lines in the window and returns how many bytes they took; a partial last line is left for the next window
+    private int parseLines(MappedByteBuffer window, long position, int length, boolean last) {
+        int lineStart = 0;
+        if (position == 0 && length >= 3 && window.get(0) == (byte) 0xEF && window.get(1) == (byte) 0xBB && window.get(2) == (byte) 0xBF) {
+            lineStart = 3; // UTF-8 byte order mark
+        }
+        if (skippingLine) {
+            while (lineStart < length && window.get(lineStart) != '\n') {
+                lineStart++;
+            }
+            if (lineStart == length) {
+                return length; // the overlong line goes on past this window too
+            }
+            lineStart++;
+            skippingLine = false;
+        }
+        for (int i = lineStart; i < length; i++) {
+            if (window.get(i) == '\n') {
+                line(window, lineStart, i > lineStart && window.get(i - 1) == '\r' ? i - 1 : i);
+                lineStart = i + 1;
+                if ((lines & (PROGRESS_CHECK_LINES - 1)) == 0) {
+                    reportProgress(position + lineStart);
+                }
+            }
+        }
+        if (last && lineStart < length) {
+            line(window, lineStart, length);
+            lineStart = length;
+        }
+        return lineStart;
+    }
+
+    private void reportProgress(long position) {
+        long now = System.nanoTime();
+        if (now >= nextProgress) {
+            System.err.printf(Locale.ROOT, "%s: %d%% (%.0f lines/s)%n", progressFile, position * 100 / progressSize,
+                    (lines - progressStartLines) * 1e9 / (now - progressStartNanos));
+            nextProgress = now + PROGRESS_NANOS;
+        }
+    }
+
+    private void line(MappedByteBuffer text, int start, int end) {
+        lines++;
+        if (startsWith(text, start, end, HAND_START)) {
+            finishHand();
+            inHand = true;
+            return;
+        }
+        if (!inHand || start == end) {
+            return;
+        }
+        if (!dealt && startsWith(text, start, end, SEAT) && indexOf(text, start, end, SITTING_OUT) < 0) {
+            seats++;
+        } else if (startsWith(text, start, end, HOLE_CARDS)) {
+            dealt = true;
+            activePlayers = seats;
+        } else if (hero == null && startsWith(text, start, end, DEALT_TO)) {
+            int nameEnd = indexOf(text, start, end, (byte) '[') - 1; // "Dealt to Hero [Ah Kd]"
+            long cards = nameEnd > start + DEALT_TO.length ? bracketedCards(text, nameEnd, end) : -1;
+            if (cards > 0 && Long.bitCount(cards) == 2) { // other games deal more hole cards and are left out
+                hero = new byte[nameEnd - start - DEALT_TO.length];
+                text.get(start + DEALT_TO.length, hero);
+                heroCards = cards;
+                recordStreet(0);
+            }
+        } else if (startsWith(text, start, end, FLOP)) {
+            recordStreet(1, bracketedCards(text, start, end));
+        } else if (startsWith(text, start, end, TURN)) {
+            recordStreet(2, bracketedCards(text, start, end));
+        } else if (startsWith(text, start, end, RIVER)) {
+            recordStreet(3, bracketedCards(text, start, end));
+        } else if (startsWith(text, start, end, SUMMARY)) {
+            dealt = true;
+        } else if (startsWith(text, start, end, TOTAL_POT)) {
+            totalPot = parseAmount(text, start + TOTAL_POT.length, end);
+        } else if (indexOf(text, start, end, FOLDS) > start) { // "Hero: folds", sometimes followed by the cards shown
+            activePlayers--;
+            heroFolded |= isHero(text, start, indexOf(text, start, end, FOLDS));
+        } else if (hero != null && startsWith(text, start, end, hero)) {
+            int at = start + hero.length;
+            if (startsWith(text, at, end, COLLECTED)) {
+                collected += Math.max(0, parseAmount(text, at + COLLECTED.length, end));
+            }
+        }
+    }
+
+    private void recordStreet(int street) {
+        recordStreet(street, 0);
+    }
+
+    private void recordStreet(int street, long board) {
+        int opponents = Math.min(activePlayers - 1, MonteCarloSimulator.MAX_OPPONENTS);
+        if (hero == null || heroFolded || board < 0 || opponents < 1 || handStreets >= STREETS.length) {
+            return;
+        }
+        handBoards[handStreets] = board;
+        handOpponents[handStreets] = (byte) opponents;
+        handStreets++;
+    }
+
+    // The hand's result is only known at its end, so its decisions are queued from here
+    private void finishHand() {
+        if (hero != null && handStreets > 0) {
+            double realized = totalPot > 0 ? Math.min(1, collected / totalPot) : collected > 0 ? 1 : 0;
+            for (int i = 0; i < handStreets; i++) {
+                batch.add(heroCards, handBoards[i], handOpponents[i], (float) realized);
+                if (batch.count == BATCH_SIZE) {
+                    submitBatch();
+                }
+            }
+        }
+        if (inHand) {
+            hands++;
+        }
+        inHand = false;
+        dealt = false;
+        seats = 0;
+        activePlayers = 0;
+        hero = null;
+        heroFolded = false;
+        heroCards = 0;
+        collected = 0;
+        totalPot = 0;
+        handStreets = 0;
+    }
+
+    private void submitBatch() {
+        if (batch.count == 0) {
+            return;
+        }
+        Batch full = batch;
+        batch = new Batch();
+        batchPermits.acquireUninterruptibly(); // blocks the reader while the workers are behind
+        try {
+            workers.execute(() -> {
+                try {
+                    evaluate(full);
+                } finally {
+                    batchPermits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            batchPermits.release();
+            throw e;
+        }
+    }
+
+    private void evaluate(Batch decisions) {
+        for (int i = 0; i < decisions.count; i++) {
+            long board = decisions.boards[i];
+            int street = board == 0 ? 0 : Long.bitCount(board) - 2;
+            double expected;
+            try {
+                long deckCards = DeckSnapshot.deckCards(decisions.hands[i] | board, 0);
+                expected = new MonteCarloSimulator(decisions.hands[i], board, deckCards, decisions.opponents[i])
+                        .simulate(0, samples).getEquity();
+            } catch (IllegalArgumentException e) { // an impossible board, e.g. the hero's own card on it
+                failedDecisions.increment();
+                continue;
+            }
+            double realized = decisions.realized[i];
+            decisionCounts[street].increment();
+            expectedSums[street].add(expected);
+            realizedSums[street].add(realized);
+            differenceSquareSums[street].add((realized - expected) * (realized - expected));
+        }
+    }
+
+    public String report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "Read %d lines (%.1f MB) in %.2f s: %.0f lines/s, %.1f MB/s%n",
+                lines, bytes / 1e6, seconds, lines / seconds, bytes / 1e6 / seconds));
+        report.append(String.format(Locale.ROOT, "Hands %d, skipped decisions %d, skipped overlong lines %d%n",
+                hands, failedDecisions.sum(), longLines));
+        report.append(String.format(Locale.ROOT, "%-10s %10s %10s %10s %11s %9s%n",
+                "street", "decisions", "expected", "realized", "difference", "+/-95%"));
+        for (int i = 0; i < STREETS.length; i++) {
+            long count = decisionCounts[i].sum();
+            double expected = count == 0 ? 0 : expectedSums[i].sum() / count;
+            double realized = count == 0 ? 0 : realizedSums[i].sum() / count;
+            double difference = realized - expected;
+            double variance = count < 2 ? 0
+                    : Math.max(0, (differenceSquareSums[i].sum() - count * difference * difference) / (count - 1));
+            report.append(String.format(Locale.ROOT, "%-10s %10d %10.4f %10.4f %+11.4f %9.4f%n", STREETS[i], count,
+                    expected, realized, difference, SimulationResult.Z_95 * Math.sqrt(variance / Math.max(1, count))));
+        }
+        return report.toString();
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getHands() {
+        return hands;
+    }
+
+    public long getDecisions(int street) {
+        return decisionCounts[street].sum();
+    }
+
+    public double getExpectedEquity(int street) {
+        long count = decisionCounts[street].sum();
+        return count == 0 ? 0 : expectedSums[street].sum() / count;
+    }
+
+    public double getRealizedEquity(int street) {
+        long count = decisionCounts[street].sum();
+        return count == 0 ? 0 : realizedSums[street].sum() / count;
+    }
+
+    private boolean isHero(MappedByteBuffer text, int start, int end) {
+        return hero != null && end - start == hero.length && startsWith(text, start, end, hero);
+    }
+
+    // Every card inside square brackets from start on, e.g. "[2h 7c 9d] [Ts]"; a negative CardParser code if one is bad
+    private static long bracketedCards(MappedByteBuffer text, int start, int end) {
+        long cards = 0;
+        for (int open = indexOf(text, start, end, (byte) '['); open >= 0; open = indexOf(text, open + 1, end, (byte) '[')) {
+            int close = indexOf(text, open + 1, end, (byte) ']');
+            if (close < 0) {
+                return CardParser.INCOMPLETE_CARD;
+            }
+            long bracket = CardParser.parseCards(text, open + 1, close);
+            if (bracket < 0) {
+                return bracket;
+            }
+            if ((cards & bracket) != 0) {
+                return CardParser.DUPLICATE_CARD;
+            }
+            cards |= bracket;
+        }
+        return cards;
+    }
+
+    // The first amount from start on, skipping a currency sign and thousands separators ("$1,234.50"); -1 if none
+    private static double parseAmount(MappedByteBuffer text, int start, int end) {
+        int at = start;
+        while (at < end && (text.get(at) < '0' || text.get(at) > '9')) {
+            at++;
+        }
+        if (at == end) {
+            return -1;
+        }
+        long whole = 0;
+        long fraction = 0;
+        long scale = 1;
+        boolean inFraction = false;
+        for (; at < end; at++) {
+            byte c = text.get(at);
+            if (c >= '0' && c <= '9') {
+                if (inFraction) {
+                    fraction = fraction * 10 + (c - '0');
+                    scale *= 10;
+                } else {
+                    whole = whole * 10 + (c - '0');
+                }
+            } else if (c == '.' && !inFraction) {
+                inFraction = true;
+            } else if (c != ',') {
+                break;
+            }
+        }
+        return whole + (double) fraction / scale;
+    }
+
+    private static boolean startsWith(MappedByteBuffer text, int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (text.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(MappedByteBuffer text, int start, int end, byte wanted) {
+        for (int i = start; i < end; i++) {
+            if (text.get(i) == wanted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(MappedByteBuffer text, int start, int end, byte[] wanted) {
+        for (int i = start; i + wanted.length <= end; i++) {
+            if (startsWith(text, i, end, wanted)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // Decisions in parallel primitive arrays, so a queued batch is a handful of objects whatever its size
+    private static final class Batch {
+        final long[] hands = new long[BATCH_SIZE];
+        final long[] boards = new long[BATCH_SIZE];
+        final byte[] opponents = new byte[BATCH_SIZE];
+        final float[] realized = new float[BATCH_SIZE];
+        int count;
+
+        void add(long hand, long board, int opponentCount, float realizedEquity) {
+            hands[count] = hand;
+            boards[count] = board;
+            opponents[count] = (byte) opponentCount;
+            realized[count] = realizedEquity;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Log-linear latency histogram in the style of HdrHistogram: every power of two is split into 32 equal buckets,
+// so any recorded nanosecond value is kept within about 3% with a fixed 15 KB of counters and no allocation per record
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+    private static final Map<String, LatencyHistogram> REGISTRY = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    // The process-wide histogram with this name, created on first use; callers on hot paths should keep the reference
+    public static LatencyHistogram named(String name) {
+        return REGISTRY.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    // Every registered histogram, one line each in name order, for dumping on demand
+    public static String dumpAll() {
+        StringBuilder dump = new StringBuilder();
+        for (LatencyHistogram histogram : new TreeMap<>(REGISTRY).values()) {
+            if (histogram.getCount() > 0) {
+                dump.append(histogram).append(System.lineSeparator());
+            }
+        }
+        return dump.toString();
+    }
+
+    public static void resetAll() {
+        for (LatencyHistogram histogram : REGISTRY.values()) {
+            histogram.reset();
+        }
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        total.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return total.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    // Nearest-rank percentile, fraction between 0 and 1, reported as the middle of its bucket
+    public long getPercentile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 1, got " + fraction);
+        }
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            count += counts.get(bucket);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(getMax(), (lowestValue(bucket) + highestValue(bucket)) / 2);
+            }
+        }
+        return getMax();
+    }
+
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            counts.set(bucket, 0);
+        }
+        total.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    // Values below 32 get a bucket each; above that the top six bits pick the bucket inside the value's power of two
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int top = (int) (value >>> shift); // between 32 and 63
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + (top - SUB_BUCKET_COUNT);
+    }
+
+    private static long lowestValue(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        long top = SUB_BUCKET_COUNT + (bucket - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        return top << shift;
+    }
+
+    private static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        return lowestValue(bucket) + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: count=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                name, getCount(), getMean() / 1e3, getPercentile(0.50) / 1e3, getPercentile(0.90) / 1e3,
+                getPercentile(0.99) / 1e3, getPercentile(0.999) / 1e3, getMax() / 1e3);
+    }
+}
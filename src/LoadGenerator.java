@@ -0,0 +1,127 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Local load generator for CalculatorServer: random flop scenarios from closed-loop clients, then latency percentiles
+//   java LoadGenerator [url] [--requests N] [--concurrency N] [--opponents N] [--samples N] [--seed N]
+public class LoadGenerator {
+
+    public static void main(String[] args) throws InterruptedException {
+        String url = "http://localhost:8080/calculate";
+        int requests = 2000;
+        int concurrency = 16;
+        int opponents = 1;
+        long samples = 20_000;
+        long seed = 42;
+        int first = 0;
+        if (args.length > 0 && !args[0].startsWith("--")) {
+            url = args[0];
+            first = 1;
+        }
+        for (int i = first; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--requests":
+                    requests = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--concurrency":
+                    concurrency = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--opponents":
+                    opponents = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--samples":
+                    samples = Long.parseLong(args[i + 1]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if (requests <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("Requests and concurrency must be positive.");
+        }
+
+        // Bodies are built up front so the clients only measure the round trip
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] bodies = new String[requests];
+        for (int i = 0; i < requests; i++) {
+            String[] cards = randomCards(random, 5);
+            bodies[i] = String.format(Locale.ROOT, "{\"hand\":\"%s%s\",\"board\":\"%s%s%s\",\"opponents\":%d,\"samples\":%d}",
+                    cards[0], cards[1], cards[2], cards[3], cards[4], opponents, samples);
+        }
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        URI target = URI.create(url);
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        for (int c = 0; c < concurrency; c++) {
+            clients.execute(() -> {
+                int request;
+                while ((request = next.getAndIncrement()) < bodies.length) {
+                    HttpRequest httpRequest = HttpRequest.newBuilder(target)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(bodies[request])).build();
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        failures.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    latencies[request] = System.nanoTime() - sent;
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.DAYS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf(Locale.ROOT, "%d requests, %d failed, concurrency %d, %.2f s%n", requests, failures.get(), concurrency, seconds);
+        System.out.printf(Locale.ROOT, "throughput: %.1f requests/s%n", requests / seconds);
+        System.out.printf(Locale.ROOT, "latency ms: p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n", percentile(latencies, 0.50) / 1e6,
+                percentile(latencies, 0.90) / 1e6, percentile(latencies, 0.99) / 1e6, latencies[latencies.length - 1] / 1e6);
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    private static String[] randomCards(SplittableRandom random, int count) {
+        int[] deck = new int[CardSet.DECK_SIZE];
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = i;
+        }
+        String[] cards = new String[count];
+        for (int i = 0; i < count; i++) { // partial shuffle
+            int swap = i + random.nextInt(deck.length - i);
+            int card = deck[swap];
+            deck[swap] = deck[i];
+            deck[i] = card;
+            cards[i] = CardParser.toShorthand(card);
+        }
+        return cards;
+    }
+}
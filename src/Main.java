@@ -2,8 +2,9 @@ import java.util.Scanner;
 public class Main {
     public static void main(String[] args) {
         Scanner clientinput = new Scanner(System.in);
-        Deck gamedeck = new Deck(); // Initialize the deck
-        Player client = new Player();
+        GameRules rules = args.length > 0 ? GameRules.fromName(args[0]) : GameRules.HOLDEM; // holdem, short-deck or omaha
+        Deck gamedeck = new Deck(rules); // Initialize the deck
+        Player client = new Player(rules);
         Table table = new Table();
 
         // Input player's hand
@@ -13,7 +14,7 @@ public class Main {
         table.inputCommunityCards(clientinput, gamedeck);
 
         // Initialize ProbabilityCalculator with the latest data
-        ProbabilityCalculator calculator = new ProbabilityCalculator(client, table, gamedeck);
+        ProbabilityCalculator calculator = new ProbabilityCalculator(client, table, gamedeck, rules);
 
         // For example, print out the probabilities:
         System.out.println(calculator);
@@ -0,0 +1,119 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+public class MonteCarloSimulator {
+    public static final int MAX_OPPONENTS = 9;
+    private static final int BOARD_SIZE = 5;
+    private static final int BATCH_SIZE = 1000; // samples between two checks of the stopping rule
+    private static final int CLOCK_CHECK_SAMPLES = 64; // samples between two clock reads when racing a deadline
+
+    private final GameRules rules;
+    private final long handCards;
+    private final long communityCards;
+    private final int[] deckIndices; // card indices still in the deck, shuffled in place so use one simulator per thread
+    private final int cardsToDeal;
+    private final int opponents;
+    private final int holeCards; // dealt to each opponent
+
+    public MonteCarloSimulator(long handCards, long communityCards, long deckCards, int opponents) {
+        this(handCards, communityCards, deckCards, opponents, GameRules.HOLDEM);
+    }
+
+    public MonteCarloSimulator(long handCards, long communityCards, long deckCards, int opponents, GameRules rules) {
+        if ((handCards & communityCards) != 0 || ((handCards | communityCards) & deckCards) != 0) {
+            throw new IllegalArgumentException("Hand, community cards and deck must not share cards.");
+        }
+        if (opponents < 0 || opponents > MAX_OPPONENTS) {
+            throw new IllegalArgumentException("Number of opponents must be between 0 and " + MAX_OPPONENTS + ".");
+        }
+        if (rules != GameRules.HOLDEM && (Long.bitCount(handCards) != rules.getHoleCards()
+                || ((handCards | communityCards | deckCards) & ~rules.getDeckCards()) != 0)) {
+            throw new IllegalArgumentException(rules.getDisplayName() + " needs " + rules.getHoleCards()
+                    + " hole cards and only cards from its own deck.");
+        }
+        this.rules = rules;
+        this.handCards = handCards;
+        this.communityCards = communityCards;
+        this.opponents = opponents;
+        holeCards = rules.getHoleCards();
+        cardsToDeal = BOARD_SIZE - Long.bitCount(communityCards);
+        deckIndices = new int[Long.bitCount(deckCards)];
+        int index = 0;
+        for (long remaining = deckCards; remaining != 0; remaining &= remaining - 1) {
+            deckIndices[index++] = Long.numberOfTrailingZeros(remaining);
+        }
+        if (cardsToDeal < 0 || cardsToDeal + holeCards * opponents > deckIndices.length) {
+            throw new IllegalArgumentException("Not enough cards left in the deck for this runout.");
+        }
+    }
+
+    // Samples runouts until the widest 95% confidence interval is within targetError or maxSamples is reached
+    public SimulationResult simulate(double targetError, long maxSamples) {
+        if (maxSamples <= 0) {
+            throw new IllegalArgumentException("Sample budget must be positive.");
+        }
+        SimulationResult result = new SimulationResult();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (result.getSamples() < maxSamples) {
+            long batch = Math.min(BATCH_SIZE, maxSamples - result.getSamples());
+            for (long i = 0; i < batch; i++) {
+                sample(random, result);
+            }
+            if (result.getMaxErrorBound() <= targetError) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    // Samples until System.nanoTime() passes the deadline; the estimate only gets tighter, so it can stop at any point
+    public SimulationResult simulateUntil(long deadlineNanos) {
+        SimulationResult result = new SimulationResult();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        do { // at least one round, so a spent budget still gets an estimate
+            for (int i = 0; i < CLOCK_CHECK_SAMPLES; i++) {
+                sample(random, result);
+            }
+        } while (System.nanoTime() - deadlineNanos < 0);
+        return result;
+    }
+
+    // Adds samples to a result from earlier calls, for callers that refine one estimate step by step
+    void sampleInto(SimulationResult result, long samples) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long i = 0; i < samples; i++) {
+            sample(random, result);
+        }
+    }
+
+    private void sample(ThreadLocalRandom random, SimulationResult result) {
+        // Partial Fisher-Yates: only the cards actually dealt get shuffled to the front
+        int cardsNeeded = cardsToDeal + holeCards * opponents;
+        for (int i = 0; i < cardsNeeded; i++) {
+            int swap = i + random.nextInt(deckIndices.length - i);
+            int card = deckIndices[swap];
+            deckIndices[swap] = deckIndices[i];
+            deckIndices[i] = card;
+        }
+        long board = communityCards;
+        for (int i = 0; i < cardsToDeal; i++) {
+            board |= 1L << deckIndices[i];
+        }
+        int heroValue = rules.evaluate(handCards, board);
+
+        int tiedOpponents = 0;
+        boolean beaten = false;
+        for (int opponent = 0; opponent < opponents && !beaten; opponent++) {
+            long opponentCards = 0;
+            for (int i = 0; i < holeCards; i++) {
+                opponentCards |= 1L << deckIndices[cardsToDeal + holeCards * opponent + i];
+            }
+            int opponentValue = rules.evaluate(opponentCards, board);
+            if (opponentValue > heroValue) {
+                beaten = true;
+            } else if (opponentValue == heroValue) {
+                tiedOpponents++;
+            }
+        }
+        result.record(rules.getHandType(heroValue).ordinal(), beaten, tiedOpponents);
+    }
+}
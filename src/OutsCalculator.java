@@ -0,0 +1,84 @@
+// Walks every card left in the deck once and records what the hand becomes, and its heads-up equity, if that card falls next
+public class OutsCalculator {
+    private final long handCards;
+    private final long communityCards;
+    private final long deckCards;
+    private final long[] deckBits; // one single-bit mask per card still in the deck
+
+    public OutsCalculator(long handCards, long communityCards, long deckCards) {
+        if ((handCards & communityCards) != 0 || ((handCards | communityCards) & deckCards) != 0) {
+            throw new IllegalArgumentException("Hand, community cards and deck must not share cards.");
+        }
+        int boardSize = Long.bitCount(communityCards);
+        if (Long.bitCount(handCards) != 2 || (boardSize != 3 && boardSize != 4)) {
+            throw new IllegalArgumentException("Outs are reported for two hole cards on the flop or the turn.");
+        }
+        this.handCards = handCards;
+        this.communityCards = communityCards;
+        this.deckCards = deckCards;
+        deckBits = new long[Long.bitCount(deckCards)];
+        int index = 0;
+        for (long remaining = deckCards; remaining != 0; remaining &= remaining - 1) {
+            deckBits[index++] = Long.lowestOneBit(remaining);
+        }
+        if (deckBits.length < 3) {
+            throw new IllegalArgumentException("Not enough cards left in the deck for this runout.");
+        }
+    }
+
+    public OutsReport calculate() {
+        return calculate(null, new OutsReport());
+    }
+
+    // On the flop the runouts come from the street cache, built here unless the caller already holds one for this state
+    public OutsReport calculate(StreetCache streets, OutsReport report) {
+        long known = handCards | communityCards;
+        report.reset(deckCards, HandEvaluator.getHandType(HandEvaluator.evaluate(known)));
+        if (Long.bitCount(communityCards) == 3) {
+            if (streets == null || !streets.continues(handCards, communityCards, deckCards)) {
+                streets = new StreetCache(handCards, communityCards, deckCards);
+            }
+            double total = 0;
+            for (long card : deckBits) {
+                double equity = streets.getHeadsUpEquityAfter(card);
+                report.set(Long.numberOfTrailingZeros(card), HandEvaluator.evaluate(known | card) >>> HandEvaluator.CATEGORY_SHIFT, equity);
+                total += equity;
+            }
+            report.setCurrentEquity(total / deckBits.length); // every turn card leads to the same number of runouts
+            return report;
+        }
+
+        // On the turn each card is the river, so its equity is the share of opponent holdings beaten on that board
+        double total = 0;
+        for (int river = 0; river < deckBits.length; river++) {
+            long board = communityCards | deckBits[river];
+            int heroValue = HandEvaluator.evaluate(handCards | board);
+            long wins = 0;
+            long ties = 0;
+            long trials = 0;
+            for (int first = 0; first < deckBits.length - 1; first++) {
+                if (first == river) {
+                    continue;
+                }
+                long withFirst = board | deckBits[first];
+                for (int second = first + 1; second < deckBits.length; second++) {
+                    if (second == river) {
+                        continue;
+                    }
+                    int opponentValue = HandEvaluator.evaluate(withFirst | deckBits[second]);
+                    if (opponentValue < heroValue) {
+                        wins++;
+                    } else if (opponentValue == heroValue) {
+                        ties++;
+                    }
+                    trials++;
+                }
+            }
+            double equity = (wins + ties / 2.0) / trials;
+            report.set(Long.numberOfTrailingZeros(deckBits[river]), heroValue >>> HandEvaluator.CATEGORY_SHIFT, equity);
+            total += equity;
+        }
+        report.setCurrentEquity(total / deckBits.length);
+        return report;
+    }
+}
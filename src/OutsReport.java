@@ -0,0 +1,89 @@
+import java.util.Arrays;
+import java.util.Locale;
+
+// What each card still in the deck does to the hand if it falls next, indexed by CardSet card index
+public class OutsReport {
+    private static final ProbabilityCalculator.HandType[] HAND_TYPES = ProbabilityCalculator.HandType.values();
+
+    private final byte[] handTypes = new byte[CardSet.DECK_SIZE]; // HandType ordinal after the card, -1 if it is not in the deck
+    private final float[] equities = new float[CardSet.DECK_SIZE]; // heads-up equity after the card
+    private long deckCards;
+    private ProbabilityCalculator.HandType currentHandType;
+    private double currentEquity;
+
+    public OutsReport() {
+        Arrays.fill(handTypes, (byte) -1);
+    }
+
+    void reset(long deckCards, ProbabilityCalculator.HandType currentHandType) {
+        Arrays.fill(handTypes, (byte) -1);
+        Arrays.fill(equities, 0);
+        this.deckCards = deckCards;
+        this.currentHandType = currentHandType;
+    }
+
+    void set(int cardIndex, int handType, double equity) {
+        handTypes[cardIndex] = (byte) handType;
+        equities[cardIndex] = (float) equity;
+    }
+
+    void setCurrentEquity(double currentEquity) {
+        this.currentEquity = currentEquity;
+    }
+
+    public long getDeckCards() {
+        return deckCards;
+    }
+
+    public ProbabilityCalculator.HandType getCurrentHandType() {
+        return currentHandType;
+    }
+
+    public double getCurrentEquity() {
+        return currentEquity;
+    }
+
+    // null if the card is not in the deck
+    public ProbabilityCalculator.HandType getHandType(int cardIndex) {
+        return handTypes[cardIndex] < 0 ? null : HAND_TYPES[handTypes[cardIndex]];
+    }
+
+    public ProbabilityCalculator.HandType getHandType(Card card) {
+        return getHandType(CardSet.cardIndex(card));
+    }
+
+    public double getEquity(int cardIndex) {
+        return equities[cardIndex];
+    }
+
+    public double getEquityChange(int cardIndex) {
+        return handTypes[cardIndex] < 0 ? 0 : equities[cardIndex] - currentEquity;
+    }
+
+    public double getEquityChange(Card card) {
+        return getEquityChange(CardSet.cardIndex(card));
+    }
+
+    // The cards that move the hand up to a better HandType, as a CardSet mask
+    public long getImprovingCards() {
+        long improving = 0;
+        for (int card = 0; card < CardSet.DECK_SIZE; card++) {
+            if (handTypes[card] > currentHandType.ordinal()) {
+                improving |= 1L << card;
+            }
+        }
+        return improving;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT, "Now: %s, equity %.4f, %d outs%n",
+                currentHandType, currentEquity, Long.bitCount(getImprovingCards())));
+        for (long remaining = deckCards; remaining != 0; remaining &= remaining - 1) {
+            int card = Long.numberOfTrailingZeros(remaining);
+            report.append(String.format(Locale.ROOT, "%s: %s, equity %+.4f%n",
+                    CardSet.cardAt(card), getHandType(card), getEquityChange(card)));
+        }
+        return report.toString();
+    }
+}
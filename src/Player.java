@@ -1,10 +1,31 @@
 import java.util.Scanner;
 
 public class Player {
-    public Card[] hand;
-    private final static int HAND_SIZE = 2;
+    private final CardSet hand;
+    private final int handSize;
     public Player() {
-        hand = new Card[HAND_SIZE]; // Player's hand (two cards in Texas Hold'em)
+        this(GameRules.HOLDEM);
+    }
+
+    public Player(GameRules rules) {
+        hand = new CardSet(); // Player's hand (two cards in Texas Hold'em, four in Omaha)
+        handSize = rules.getHoleCards();
+    }
+
+    public int getHandSize() {
+        return handSize;
+    }
+
+    public Card[] getHand() {
+        return hand.toArray();
+    }
+
+    public CardSet getHandCardSet() {
+        return hand;
+    }
+
+    public boolean addCard(Card card) { // false if the hand is full or already holds the card
+        return hand.size() < handSize && hand.add(card);
     }
 /*
     public void inputHand(Scanner scanner, Deck deck) {
@@ -22,7 +43,7 @@ public class Player {
 
                 Card.Value value = Card.Value.valueOf(input[0]);
                 Card.Suit suit = Card.Suit.valueOf(input[1]);
-                Card card = new Card(value, suit);
+                Card card = Card.of(value, suit);
 
                 if (!deck.containsCard(card)) {
                     System.out.println("Card not available or already taken. Please enter a different card.");
@@ -43,25 +64,20 @@ public class Player {
 
 
     public void inputHand(Scanner scanner, Deck deck) {
-        System.out.println("Enter your two cards:");
-        for (int i = 0; i < hand.length; i++) {
-            System.out.println("Enter card " + (i + 1) + " (format: VALUE SUIT, e.g., ACE HEARTS):");
-            try {
-                String cardInput = scanner.nextLine().toUpperCase();
-                String[] parts = cardInput.split(" ");
-                Card.Value value = Card.Value.valueOf(parts[0]);
-                Card.Suit suit = Card.Suit.valueOf(parts[1]);
-                Card card = new Card(value, suit);
+        System.out.println("Enter your " + handSize + " cards:");
+        while (hand.size() < handSize) {
+            System.out.println("Enter card " + (hand.size() + 1) + " (format: Ah or VALUE SUIT, e.g., ACE HEARTS):");
+            int cardId = CardParser.parseCard(scanner.nextLine()); // a negative error code instead of an exception
+            if (cardId < 0) {
+                System.out.println("Invalid card input. " + CardParser.describe(cardId) + " Please try again.");
+                continue;
+            }
+            Card card = Card.of(cardId);
 
-                if (deck.removeCard(card)) {
-                    hand[i] = card;
-                } else {
-                    System.out.println("Card not available or already taken. Please enter a different card.");
-                    i--; // Allow the player to re-enter the card
-                }
-            } catch (IllegalArgumentException e) { //throwing exception so that a Card has to be inputed
-                System.out.println("Invalid card input. Please try again.");
-                i--; // Allow the player to re-enter the card
+            if (deck.removeCard(card)) {
+                hand.add(card);
+            } else {
+                System.out.println("Card not available or already taken. Please enter a different card.");
             }
         }
     }
@@ -81,7 +97,7 @@ public class Player {
 
                 Card.Value value = Card.Value.valueOf(parts[0]);
                 Card.Suit suit = Card.Suit.valueOf(parts[1]);
-                Card card = new Card(value, suit);
+                Card card = Card.of(value, suit);
 
                 if (!deck.containsCard(card)) {
                     System.out.println("Card does not exist or already taken. Please enter a different card.");
@@ -116,7 +132,7 @@ public class Player {
 
                     Card.Value value = Card.Value.valueOf(parts[0]);
                     Card.Suit suit = Card.Suit.valueOf(parts[1]);
-                    Card card = new Card(value, suit);
+                    Card card = Card.of(value, suit);
 
                     if (deck.removeCard(card)) {
                         hand[i] = card;
@@ -191,14 +207,7 @@ public class Player {
  */
 @Override
     public String toString() { //Change the hand to two string
-        String handString = "Hand: ";
-        if (hand[0] != null) {
-            handString += hand[0].toString();
-        }
-        if (hand[1] != null) {
-            handString += ", " + hand[1];
-        }
-        return handString;
+        return "Hand: " + hand;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+// Pre-flop answers for the 169 starting-hand classes, generated offline and memory-mapped at runtime:
+//   java PreflopTable [output file] [samples per opponent count]
+public class PreflopTable {
+    public static final int CLASS_COUNT = 169;
+    public static final String TABLE_FILE_PROPERTY = "preflop.file";
+    private static final String DEFAULT_TABLE_FILE = "preflop.dat";
+    private static final int MAGIC = 0x50524546; // "PREF"
+    private static final int VERSION = 2;
+    private static final int VALUE_COUNT = CardSet.VALUE_COUNT;
+    private static final int HAND_TYPE_COUNT = ProbabilityCalculator.HandType.values().length;
+    private static final int MAX_OPPONENTS = EquityCalculator.MAX_OPPONENTS;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES; // magic, version, class count, opponent count
+    private static final int EQUITY_BYTES = 3 * Long.BYTES + 2 * Double.BYTES; // wins, ties, losses, equity sum and square sum
+    private static final int CLASS_BYTES = HAND_TYPE_COUNT * Long.BYTES + MAX_OPPONENTS * EQUITY_BYTES;
+    private static final long DEFAULT_SAMPLES = 2_000_000;
+
+    private final MappedByteBuffer table;
+
+    private PreflopTable(MappedByteBuffer table) {
+        this.table = table;
+    }
+
+    // The table at -Dpreflop.file (default preflop.dat), or null if it has not been generated
+    public static PreflopTable getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static class DefaultHolder {
+        private static final PreflopTable INSTANCE = loadOrNull(Paths.get(System.getProperty(TABLE_FILE_PROPERTY, DEFAULT_TABLE_FILE)));
+    }
+
+    private static PreflopTable loadOrNull(Path tableFile) {
+        try {
+            return Files.isRegularFile(tableFile) ? load(tableFile) : null;
+        } catch (IOException | IllegalStateException e) {
+            return null; // fall back to computing pre-flop spots
+        }
+    }
+
+    public static PreflopTable load(Path tableFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(tableFile, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (channel.size() != HEADER_BYTES + (long) CLASS_COUNT * CLASS_BYTES || mapped.getInt(0) != MAGIC
+                    || mapped.getInt(4) != VERSION || mapped.getInt(8) != CLASS_COUNT || mapped.getInt(12) != MAX_OPPONENTS) {
+                throw new IllegalStateException("Not a version " + VERSION + " pre-flop table: " + tableFile);
+            }
+            return new PreflopTable(mapped);
+        }
+    }
+
+    // Pairs sit on the diagonal of a 13x13 grid, suited hands above it and offsuit hands below it
+    public static int classIndex(long handCards) {
+        if (Long.bitCount(handCards) != 2) {
+            throw new IllegalArgumentException("A starting hand has exactly two cards.");
+        }
+        int first = Long.numberOfTrailingZeros(handCards);
+        int second = 63 - Long.numberOfLeadingZeros(handCards);
+        int firstValue = CardSet.valueIndexOf(first);
+        int secondValue = CardSet.valueIndexOf(second);
+        int high = Math.max(firstValue, secondValue);
+        int low = Math.min(firstValue, secondValue);
+        boolean suited = CardSet.suitIndexOf(first) == CardSet.suitIndexOf(second);
+        return suited ? high * VALUE_COUNT + low : low * VALUE_COUNT + high;
+    }
+
+    // One concrete hand of the class, used when generating the table
+    public static long representativeHand(int classIndex) {
+        int row = classIndex / VALUE_COUNT;
+        int column = classIndex % VALUE_COUNT;
+        int secondSuit = row > column ? 0 : 1; // suited hands share the first suit
+        return (1L << row) | (1L << (secondSuit * VALUE_COUNT + column));
+    }
+
+    public HandDistribution getDistribution(long handCards) {
+        int offset = classOffset(handCards);
+        long[] handTypeCounts = new long[HAND_TYPE_COUNT];
+        for (int i = 0; i < HAND_TYPE_COUNT; i++) {
+            handTypeCounts[i] = table.getLong(offset + i * Long.BYTES);
+        }
+        return new HandDistribution(handTypeCounts);
+    }
+
+    // A sampled answer (wins + ties + losses is the sample count), so isExact() is false and the error bound is set
+    public EquityResult getEquity(long handCards, int opponents) {
+        if (opponents < 1 || opponents > MAX_OPPONENTS) {
+            throw new IllegalArgumentException("Number of opponents must be between 1 and " + MAX_OPPONENTS + ".");
+        }
+        int offset = classOffset(handCards) + HAND_TYPE_COUNT * Long.BYTES + (opponents - 1) * EQUITY_BYTES;
+        return new EquityResult(table.getLong(offset), table.getLong(offset + 8), table.getLong(offset + 16),
+                table.getDouble(offset + 24), table.getDouble(offset + 32));
+    }
+
+    private static int classOffset(long handCards) {
+        return HEADER_BYTES + classIndex(handCards) * CLASS_BYTES;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path tableFile = Paths.get(args.length > 0 ? args[0] : DEFAULT_TABLE_FILE);
+        long samples = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SAMPLES;
+        long start = System.nanoTime();
+        generate(tableFile, samples);
+        System.out.printf("Wrote %s in %.1f s%n", tableFile, (System.nanoTime() - start) / 1e9);
+    }
+
+    // Distributions are exact enumerations; equities are sampled with the given budget per opponent count
+    public static void generate(Path tableFile, long samples) throws IOException {
+        long[][] handTypeCounts = new long[CLASS_COUNT][];
+        SimulationResult[][] equities = new SimulationResult[CLASS_COUNT][MAX_OPPONENTS];
+        IntStream.range(0, CLASS_COUNT).parallel().forEach(classIndex -> {
+            long handCards = representativeHand(classIndex);
+            long deckCards = CardSet.FULL_DECK & ~handCards;
+            HandDistribution distribution = new HandEnumerator(handCards, 0, deckCards).enumerate();
+            handTypeCounts[classIndex] = new long[HAND_TYPE_COUNT];
+            for (ProbabilityCalculator.HandType handType : ProbabilityCalculator.HandType.values()) {
+                handTypeCounts[classIndex][handType.ordinal()] = distribution.getCount(handType);
+            }
+            for (int opponents = 1; opponents <= MAX_OPPONENTS; opponents++) {
+                equities[classIndex][opponents - 1] = new MonteCarloSimulator(handCards, 0, deckCards, opponents).simulate(0, samples);
+            }
+        });
+
+        Path temporaryFile = tableFile.resolveSibling(tableFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(CLASS_COUNT);
+            out.writeInt(MAX_OPPONENTS);
+            for (int classIndex = 0; classIndex < CLASS_COUNT; classIndex++) {
+                for (long count : handTypeCounts[classIndex]) {
+                    out.writeLong(count);
+                }
+                for (SimulationResult equity : equities[classIndex]) {
+                    out.writeLong(equity.getWins());
+                    out.writeLong(equity.getTies());
+                    out.writeLong(equity.getLosses());
+                    out.writeDouble(equity.getEquity() * equity.getSamples());
+                    out.writeDouble(equity.getEquitySquareSum());
+                }
+            }
+        }
+        Files.move(temporaryFile, tableFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -1,986 +1,350 @@
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+
+import jdk.jfr.FlightRecorder;
+
 public class ProbabilityCalculator {
+    // Shared by every calculator so repeated spots across tables are answered from memory
+    private static final int CACHE_SIZE = Integer.getInteger("calculator.cache.size", 4096);
+    private static final ResultCache<HandDistribution> DISTRIBUTION_CACHE = new ResultCache<>(CACHE_SIZE);
+    private static final ResultCache<EquityResult> EQUITY_CACHE = new ResultCache<>(CACHE_SIZE);
+    // Latency of each public query, kept process-wide and dumped with LatencyHistogram.dumpAll()
+    private static final LatencyHistogram[] HAND_TYPE_LATENCY = new LatencyHistogram[HandType.values().length];
+    private static final LatencyHistogram DISTRIBUTION_LATENCY = LatencyHistogram.named("calculator.handDistribution");
+    private static final LatencyHistogram EQUITY_LATENCY = LatencyHistogram.named("calculator.equity");
+    private static final long SIMULATED_EQUITY_SAMPLES = 200_000; // equity in games without an exact equity engine
+    private static final Duration MAX_BUDGET = Duration.ofDays(1); // keeps the deadline arithmetic inside a long
+    private static final double DEFAULT_TARGET_ERROR = 0.001; // where a progressive stream settles if it cannot finish exactly
+
+    static {
+        for (HandType handType : HandType.values()) {
+            HAND_TYPE_LATENCY[handType.ordinal()] = LatencyHistogram.named("calculator.handProbability." + handType);
+        }
+    }
+
     private final Player player;
     private final Table table;
-    private Card[] playerHand;
     private Card[] communityCards;
     private final Deck deck;
+    private final GameRules rules;
+    private HandDistribution handDistribution; // last enumeration, reused until the cards change
+    private long distributionHandCards;
+    private long distributionCommunityCards;
+    private long distributionDeckCards;
+    private StreetCache streetCache; // flop results split by turn and river, so later streets are lookups
 
     public ProbabilityCalculator(Player player, Table table, Deck deck) {
-        if (player == null || table == null || deck == null) {
-            throw new IllegalArgumentException("Player, Table, and Deck cannot be null.");
+        this(player, table, deck, GameRules.HOLDEM);
+    }
+
+    public ProbabilityCalculator(Player player, Table table, Deck deck, GameRules rules) {
+        if (player == null || table == null || deck == null || rules == null) {
+            throw new IllegalArgumentException("Player, Table, Deck and GameRules cannot be null.");
         }
         this.player = player;
         this.table = table;
         this.deck = deck;
+        this.rules = rules;
         updateHands();
     }
 
+    public GameRules getRules() {
+        return rules;
+    }
+
     private void updateHands() {
         // Ensure that the player and table objects are not null
-        if (this.player == null || this.player.hand == null) {
+        if (this.player == null || this.player.getHandCardSet() == null) {
             throw new IllegalStateException("Player object or player's hand is not properly initialized.");
         }
-        if (this.table == null|| this.table.getCommunityCards() == null) {
+        if (this.table == null|| this.table.getCommunityCardSet() == null) {
             throw new IllegalStateException("Table object or community cards are not properly initialized.");
         }
-        this.playerHand = this.player.hand;
         this.communityCards = this.table.getCommunityCards();
     }
-    private long calculateTotalPossibleOutcomes() {
-        return Combination.calculateCombinations(deck.remainingCards(), 5 - communityCards.length);
-    }       // Determine the total number of possible outcomes - drawing 5 cards from the remaining cards in the deck
 
     public Fraction calculateHandProbability(HandType handType) {
         // Make sure to update hands to reflect the current state
         updateHands();
-        switch(handType) {
-           // case HIGH_CARD:
-               // return calculateHighCardProbability();
-            case PAIR:
-                return calculatePairProbability();
-            case TWO_PAIR:
-                return calculateTwoPairProbability();
-            case THREE_OF_A_KIND:
-                return calculateThreeOfAKindProbability();
-            case STRAIGHT:
-                return calculateStraightProbability();
-            case FLUSH:
-               return calculateFlushProbability();
-            case FULL_HOUSE:
-                return calculateFullHouseProbability();
-            case FOUR_OF_A_KIND:
-                return calculateFourOfAKindProbability();
-            case STRAIGHT_FLUSH:
-                return calculateStraightFlushProbability();
-            case ROYAL_FLUSH:
-                return calculateRoyalFlushProbability();
-            default:
-                return new Fraction(-1, 1); // Return 2/1 for unknown types
-        }
+        CalculationEvent event = beginCalculation();
+        long start = System.nanoTime();
+        // Every game reads the exact enumeration, which the pre-flop table, street cache and result cache front
+        Fraction probability = currentHandDistribution().getFraction(handType);
+        HAND_TYPE_LATENCY[handType.ordinal()].record(System.nanoTime() - start);
+        commitCalculation(event, "calculateHandProbability", handType, 0);
+        return probability;
     }
 
-    private Fraction calculatePairProbability() {
-        // Update playerHand and communityCards to the latest
-        updateHands();
-        long totalPossibleOutcomes =calculateTotalPossibleOutcomes();
-
-        // Check if the player already has a pair, if so, the probability is 1/1 as they already achieved the hand
-        if (playerHasPair()) {
-            return new Fraction(1, 1);
-        }
-        //case for 5 communtiy cards
-        if(communityCards.length == 5 && !playerHasPair()) {
-            return new Fraction(0, 1);
-        }
-        // Initialize a variable to count the number of favorable outcomes for forming a pair
-        long favorableOutcomes = 0;
-        // Count occurrences of each card value in the player's hand and community cards
-        int[] valueCounts = new int[Card.Value.values().length];
-        for (Card card : playerHand) {
-            valueCounts[Card.getValueIndex(card.getCardValue())]++;
-        }
-        for (Card card : communityCards) {
-            if (card != null)
-                valueCounts[Card.getValueIndex(card.getCardValue())]++;
+    // Null until Flight Recorder is running, so a plain run never loads the event classes or pays for JFR start-up
+    private static CalculationEvent beginCalculation() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
         }
-        // Calculate the favorable outcomes for each card value
-        for (int i = 0; i < valueCounts.length; i++) {
-            if (valueCounts[i] == 1) {
-                // If exactly one card of this value is present, we can form a pair with any of the remaining cards of the same value
-                int remainingCardsOfSameValue = deck.countCardsWithValue(Card.Value.values()[i]);
-                favorableOutcomes += Combination.calculateCombinations(remainingCardsOfSameValue, 1);
-            } else if (valueCounts[i] == 0) {
-                // If no card of this value is present, two cards of this value can still form a pair from the deck
-                int remainingCardsOfSameValue = deck.countCardsWithValue(Card.Value.values()[i]);
-                // We need at least 2 cards of the same value to form a new pair
-                if (remainingCardsOfSameValue >= 2) {
-                    favorableOutcomes += Combination.calculateCombinations(remainingCardsOfSameValue, 2);
-                }
-            }
-        }
-
-        // Return the probability of forming a pair as a fraction
-        return new Fraction(favorableOutcomes, totalPossibleOutcomes);
+        CalculationEvent event = new CalculationEvent();
+        event.begin();
+        return event;
     }
 
-    private boolean playerHasPair() {
-        // Check the player's hand for any pair
-        for (int i = 0; i < playerHand.length - 1; i++) {
-            for (int j = i + 1; j < playerHand.length; j++) {
-                if (playerHand[i] != null && playerHand[j] != null &&
-                        playerHand[i].getCardValue() == playerHand[j].getCardValue()) {
-                    return true; // Found a pair
-                }
-            }
+    // Fills in the event only when a recording wants it, so an idle recorder costs no string work
+    private void commitCalculation(CalculationEvent event, String operation, HandType handType, int opponents) {
+        if (event == null) {
+            return;
         }
-        // Check if there is a pair in community cards
-        for (int i = 0; i < communityCards.length - 1; i++) {
-            for (int j = i + 1; j < communityCards.length; j++) {
-                if (communityCards[i] != null && communityCards[j] != null &&
-                        communityCards[i].getCardValue() == communityCards[j].getCardValue()) {
-                    return true; // Found a pair
-                }
-            }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.handType = handType == null ? null : handType.name();
+            event.communityCards = communityCards.length;
+            event.opponents = opponents;
+            event.commit();
         }
-        return false; // No pair found
     }
 
-    private Fraction calculateTwoPairProbability() {
-        // Update playerHand and communityCards to the latest
+    public HandDistribution calculateHandDistribution() {
+        // Enumerates every runout from the live deck once; the result is kept until the hand, board or deck change
         updateHands();
-
-        // Calculate the total number of possible outcomes
-        long totalPossibleOutcomes =calculateTotalPossibleOutcomes();
-        // Count occurrences of each card value in the player's hand and community cards
-        int[] valueCounts = new int[Card.Value.values().length];
-        for (Card card : playerHand) {
-            if (card != null)
-                valueCounts[Card.getValueIndex(card.getCardValue())]++;
-        }
-        for (Card card : communityCards) {
-            if (card != null)
-                valueCounts[Card.getValueIndex(card.getCardValue())]++;
-        }
-
-        // Initialize variables to count the number of single cards and pairs already present
-        int singles = 0;
-        int pairs = 0;
-        for (int count : valueCounts) {
-            if (count == 1) singles++;
-            if (count == 2) pairs++;
-        }
-
-        // If already have two pairs, the probability is 1 (as they already have two pairs)
-        if (pairs >= 2) {
-            return new Fraction(1, 1);
-        }
-        if (pairs < 2 && communityCards.length == 5 ) {
-            return new Fraction(0, 1);
-        }
-
-        long favorableOutcomes = 0;
-
-        // Calculate the favorable outcomes based on the number of singles and pairs
-        if (pairs == 1) {
-            // If there's already one pair, need to form another pair from the remaining singles
-            for (int i = 0; i < valueCounts.length; i++) {
-                if (valueCounts[i] == 1) {
-                    int remainingCardsOfSameValue = deck.countCardsWithValue(Card.Value.values()[i]);
-                    favorableOutcomes += Combination.calculateCombinations(remainingCardsOfSameValue, 1);
-                }
-            }
-        } else if (pairs == 0) {
-            // If there are no pairs yet, need to form two pairs from the singles
-            for (int i = 0; i < valueCounts.length; i++) {
-                if (valueCounts[i] == 1) {
-                    int remainingCardsOfSameValue = deck.countCardsWithValue(Card.Value.values()[i]);
-                    // Need at least one more card of the same value to form a pair
-                    if (remainingCardsOfSameValue >= 1) {
-                        favorableOutcomes += Combination.calculateCombinations(remainingCardsOfSameValue, 1) * singles;
-                        singles--; // Decrease count of singles as one is used to form a pair
-                    }
-                }
-            }
-            // Correct for double counting each pair formation
-            favorableOutcomes = favorableOutcomes / 2;
-        }
-
-        return new Fraction(favorableOutcomes, totalPossibleOutcomes);
+        CalculationEvent event = beginCalculation();
+        long start = System.nanoTime();
+        HandDistribution distribution = currentHandDistribution();
+        DISTRIBUTION_LATENCY.record(System.nanoTime() - start);
+        commitCalculation(event, "calculateHandDistribution", null, 0);
+        return distribution;
     }
-    private Fraction calculateThreeOfAKindProbability() {
-        // Ensure hands are updated to reflect the current state
-        updateHands();
-
-        // Calculate the total number of possible outcomes
-        long totalPossibleOutcomes = calculateTotalPossibleOutcomes();
 
-        // Count occurrences of each card value in the player's hand and community cards
-        int[] valueCounts = new int[Card.Value.values().length];
-        for (Card card : playerHand) {
-            valueCounts[Card.getValueIndex(card.getCardValue())]++;
-        }
-        for (Card card : communityCards) {
-            if (card != null) {
-                valueCounts[Card.getValueIndex(card.getCardValue())]++;
-            }
-        }
-
-        // Check for an existing three of a kind
-        for (int count : valueCounts) {
-            if (count == 3) {
-                // Three of a kind already exists, return 1/1 as probability
-                return new Fraction(1, 1);
-            }
-            if(count < 3 && communityCards.length == 5) //case when no cards are avaliable anymore
-            {
-                return new Fraction(0, 1);
-            }
-        }
-
-        long favorableOutcomes = 0;
-
-        // Calculate the favorable outcomes for each card value
-        for (int i = 0; i < valueCounts.length; i++) {
-            int count = valueCounts[i];
-            int remainingCardsOfSameValue = deck.countCardsWithValue(Card.Value.values()[i]);
-
-            if (count == 2 && remainingCardsOfSameValue >= 1) {
-                // If there are already two cards of this value, we need one more for Three of a Kind
-                favorableOutcomes += Combination.calculateCombinations(remainingCardsOfSameValue, 1);
-            } else if (count == 1 && remainingCardsOfSameValue >= 2) {
-                // If there is only one card of this value, we need two more for Three of a Kind
-                favorableOutcomes += Combination.calculateCombinations(remainingCardsOfSameValue, 2);
-            } else if (count == 0 && remainingCardsOfSameValue >= 3) {
-                // If there are no cards of this value, we need all three for Three of a Kind
-                favorableOutcomes += Combination.calculateCombinations(remainingCardsOfSameValue, 3);
-            }
+    private HandDistribution currentHandDistribution() {
+        long handCards = player.getHandCardSet().getMask();
+        long communityCards = table.getCommunityCardSet().getMask();
+        long deckCards = deck.getCardSet().getMask();
+        if (handDistribution == null || handCards != distributionHandCards
+                || communityCards != distributionCommunityCards || deckCards != distributionDeckCards) {
+            handDistribution = exactDistribution(handCards, communityCards, deckCards, rules,
+                    preflopTableFor(handCards, communityCards, deckCards), streetCacheFor(handCards, communityCards, deckCards));
+            distributionHandCards = handCards;
+            distributionCommunityCards = communityCards;
+            distributionDeckCards = deckCards;
         }
-
-        // Return the probability of forming exactly three of a kind as a fraction
-        return new Fraction(favorableOutcomes, totalPossibleOutcomes);
+        return handDistribution;
     }
-    /*
-    private Fraction calculateStraightProbability() {
-        // Update playerHand and communityCards to the latest
-        updateHands();
 
-        // Calculate the total number of possible outcomes
-        long totalPossibleOutcomes =calculateTotalPossibleOutcomes();
-        // Create a boolean array representing the presence of card values in the hand and table
-        boolean[] presentValues = new boolean[Card.Value.values().length];
-        for (Card card : playerHand) {
-            if (card != null) {
-                presentValues[Card.getValueIndex(card.getCardValue())] = true;
-            }
-        }
-        for (Card card : communityCards) {
-            if (card != null) {
-                presentValues[Card.getValueIndex(card.getCardValue())] = true;
-            }
+    // The fastest exact source that has the answer: the pre-flop table, the street cache, the shared cache, and only
+    // then a full enumeration. Either lookup may be null when it does not apply.
+    static HandDistribution exactDistribution(long handCards, long communityCards, long deckCards, GameRules rules,
+                                              PreflopTable preflopTable, StreetCache streets) {
+        if (preflopTable != null) {
+            return preflopTable.getDistribution(handCards);
         }
-
-        long favorableOutcomes = 0;
-
-        // Check for possible straights by looking for sequences of five consecutive cards
-        for (int i = 0; i <= presentValues.length - 5; i++) {
-            if (canFormStraight(presentValues, i)) {
-                favorableOutcomes += countStraightCombinations(presentValues, i);
-            }
+        if (streets != null && streets.continues(handCards, communityCards, deckCards)) {
+            return streets.getDistribution(handCards, communityCards, deckCards);
         }
-
-        return new Fraction(favorableOutcomes, totalPossibleOutcomes);
+        return DISTRIBUTION_CACHE.computeIfAbsent(ResultCache.key(handCards, communityCards, deckCards, rules.ordinal()),
+                () -> new HandEnumerator(handCards, communityCards, deckCards, rules).enumerate());
     }
 
-    private boolean canFormStraight(boolean[] presentValues, int start) {
-        // Check if a sequence of five consecutive cards is possible starting from 'start'
-        for (int i = start; i < start + 5; i++) {
-            if (!presentValues[i]) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private long countStraightCombinations(boolean[] presentValues, int start) {
-        // Count the combinations that can complete the straight
-        long combinations = 1;
-        for (int i = start; i < start + 5; i++) {
-            if (!presentValues[i]) {
-                // Count the remaining cards of this value in the deck
-                int remainingCardsOfValue = deck.countCardsWithValue(Card.Value.values()[i]);
-                combinations *= remainingCardsOfValue;
-            }
-        }
-        return combinations;
+    public Fraction calculateExactHandProbability(HandType handType) {
+        return calculateHandDistribution().getFraction(handType);
     }
-     */
-    private Fraction calculateStraightProbability() {
-        updateHands(); // Update playerHand and communityCards to the latest
 
-        // Calculate the total number of possible outcomes
-        long totalPossibleOutcomes = calculateTotalPossibleOutcomes();
-
-        // Create a boolean array representing the presence of card values in the hand and table
-        boolean[] presentValues = new boolean[Card.Value.values().length];
-        for (Card card : playerHand) {
-            if (card != null) {
-                presentValues[Card.getValueIndex(card.getCardValue())] = true;
-            }
-        }
-        for (Card card : communityCards) {
-            if (card != null) {
-                presentValues[Card.getValueIndex(card.getCardValue())] = true;
-            }
-        }
-
-        // Check if a straight is already formed or if it's impossible to form one
-        if (isStraightAlreadyFormed(presentValues)) {
-            return new Fraction(1, 1); // Straight already formed, return 1/1
-        } else if (communityCards.length == 5 && !canFormAnyStraight(presentValues)) {
-            return new Fraction(0, 1); // Impossible to form a straight with all community cards dealt, return 0/1
-        }
-
-        // Calculate possible straights if not already formed or impossible
-        long favorableOutcomes = 0;
-        for (int i = 0; i <= presentValues.length - 5; i++) {
-            if (canFormStraight(presentValues, i)) {
-                favorableOutcomes += countStraightCombinations(presentValues, i);
-            }
-        }
-
-        return new Fraction(favorableOutcomes, totalPossibleOutcomes);
-    }
-
-    private boolean isStraightAlreadyFormed(boolean[] presentValues) {
-        // Iterate through present values to check for five consecutive cards
-        for (int i = 0; i <= presentValues.length - 5; i++) {
-            if (canFormStraight(presentValues, i)) {
-                return true; // Straight is already formed
-            }
-        }
-        return false; // No straight found
-    }
-
-    private boolean canFormAnyStraight(boolean[] presentValues) {
-        // Iterate over all possible starts of a straight (0 to 9 for a standard 13-card suit)
-        for (int start = 0; start <= presentValues.length - 5; start++) {
-            if (canFormStraight(presentValues, start)) {
-                return true; // Found a potential straight formation
-            }
-        }
-        return false; // No possible straight can be formed
-    }
-
-    private boolean canFormStraight(boolean[] presentValues, int start) {
-        // Check if a sequence of five consecutive cards is possible starting from 'start'
-        for (int i = start; i < start + 5; i++) {
-            if (!presentValues[i]) {
-                return false;
-            }
-        }
-        return true; // A straight can be formed
+    public SimulationResult simulateHandDistribution(int opponents, double targetError, long maxSamples) {
+        // Samples random runouts instead of walking all of them, stopping at the target error or the sample budget
+        updateHands();
+        return new MonteCarloSimulator(player.getHandCardSet().getMask(), table.getCommunityCardSet().getMask(),
+                deck.getCardSet().getMask(), opponents, rules).simulate(targetError, maxSamples);
     }
 
-    private long countStraightCombinations(boolean[] presentValues, int start) {
-        // Count the combinations that can complete the straight
-        long combinations = 1;
-        for (int i = start; i < start + 5; i++) {
-            if (!presentValues[i]) {
-                // Count the remaining cards of this value in the deck
-                int remainingCardsOfValue = deck.countCardsWithValue(Card.Value.values()[i]);
-                combinations *= remainingCardsOfValue;
-            }
-        }
-        return combinations; // Return the total count of combinations
-    }
-    private Fraction calculateFlushProbability() {
-        // Ensure hands are updated to reflect the current state
+    public EquityResult calculateEquity(int opponents) {
+        // Win/tie/loss against unknown opponents, spread over all cores by board subsets. Heads-up Hold'em is exact
+        // once past pre-flop; pre-flop table answers, several opponents (at least 200,000 random deals) and other
+        // games are sampled, which EquityResult.isExact() and getEquityErrorBound() report.
         updateHands();
-
-        // Calculate the total number of possible outcomes
-        long totalPossibleOutcomes = calculateTotalPossibleOutcomes();
-
-        // Initialize an array to count occurrences of each suit in the player's hand and community cards
-        int[] suitCounts = new int[Card.Suit.values().length];
-        for (Card card : playerHand) {
-            if (card != null) {
-                suitCounts[card.getCardSuit().ordinal()]++;
-            }
-        }
-        for (Card card : communityCards) {
-            if (card != null) {
-                suitCounts[card.getCardSuit().ordinal()]++;
-            }
-        }
-
-        // Check for an existing flush
-        for (int count : suitCounts) {
-            if (count >= 5) {
-                // Flush already exists, return 1/1 as probability
-                return new Fraction(1, 1);
-            }
-            if(count < 5 && communityCards.length==5 )
-            {
-                // Flush doesn't exists, return 1/1 as probability
-                return new Fraction(0, 1);
-            }
-        }
-
-        long favorableOutcomes = 0;
-
-        // Calculate the favorable outcomes for each suit if flush is not already present
-        for (int suitIndex = 0; suitIndex < suitCounts.length; suitIndex++) {
-            int suitCount = suitCounts[suitIndex];
-            int cardsNeeded = 5 - suitCount; // Number of additional cards of the same suit needed for a flush
-
-            // Check if it's possible to draw the needed cards of the same suit from the deck
-            if (cardsNeeded > 0 && cardsNeeded <= deck.remainingCards()) {
-                int remainingCardsOfSuit = deck.countCardsOfSuit(Card.Suit.values()[suitIndex]);
-                if (remainingCardsOfSuit >= cardsNeeded) {
-                    favorableOutcomes += Combination.calculateCombinations(remainingCardsOfSuit, cardsNeeded);
-                }
-            }
-        }
-
-        return new Fraction(favorableOutcomes, totalPossibleOutcomes);
+        CalculationEvent event = beginCalculation();
+        long start = System.nanoTime();
+        EquityResult equity = currentEquity(opponents);
+        EQUITY_LATENCY.record(System.nanoTime() - start);
+        commitCalculation(event, "calculateEquity", null, opponents);
+        return equity;
     }
-    /*
-    private Fraction calculateFullHouseProbability() {
-        // Update playerHand and communityCards to the latest
-        updateHands();
 
-        // Calculate the total number of possible outcomes
-        long totalPossibleOutcomes =calculateTotalPossibleOutcomes();
-        // Count occurrences of each card value in the player's hand and community cards
-        int[] valueCounts = new int[Card.Value.values().length];
-        for (Card card : playerHand) {
-            if (card != null)
-                valueCounts[Card.getValueIndex(card.getCardValue())]++;
+    private EquityResult currentEquity(int opponents) {
+        long handCards = player.getHandCardSet().getMask();
+        long communityCards = table.getCommunityCardSet().getMask();
+        long deckCards = deck.getCardSet().getMask();
+        PreflopTable preflopTable = preflopTableFor(handCards, communityCards, deckCards);
+        if (preflopTable != null && opponents >= 1 && opponents <= EquityCalculator.MAX_OPPONENTS) {
+            return preflopTable.getEquity(handCards, opponents);
         }
-        for (Card card : communityCards) {
-            if (card != null)
-                valueCounts[Card.getValueIndex(card.getCardValue())]++;
+        StreetCache streets = opponents == 1 ? streetCacheFor(handCards, communityCards, deckCards) : null;
+        if (streets != null) {
+            return streets.getHeadsUpEquity(handCards, communityCards, deckCards);
         }
-
-        long favorableOutcomes = 0;
-
-        // Calculate favorable outcomes for each pair of values (one for three of a kind, one for a pair)
-        for (int i = 0; i < valueCounts.length; i++) {
-            for (int j = 0; j < valueCounts.length; j++) {
-                if (i != j) {
-                    // Combinations for the 'three of a kind' part of the full house
-                    long threeKindCombinations = calculateCombinationsForThreeOfAKind(i, valueCounts);
-                    // Combinations for the 'pair' part of the full house
-                    long pairCombinations = calculateCombinationsForPair(j, valueCounts);
-
-                    // Multiply the combinations for the 'three of a kind' and 'pair' to get total combinations for this pair of values
-                    favorableOutcomes += threeKindCombinations * pairCombinations;
-                }
-            }
+        if (rules != GameRules.HOLDEM) { // every opponent holding is a random deal from the game's own deck
+            return EQUITY_CACHE.computeIfAbsent(ResultCache.key(handCards, communityCards, deckCards, opponents | rules.ordinal() << 8), () -> {
+                SimulationResult simulated = new MonteCarloSimulator(handCards, communityCards, deckCards, opponents, rules)
+                        .simulate(0, SIMULATED_EQUITY_SAMPLES);
+                return new EquityResult(simulated);
+            });
         }
-
-        return new Fraction(favorableOutcomes, totalPossibleOutcomes);
+        return EQUITY_CACHE.computeIfAbsent(ResultCache.key(handCards, communityCards, deckCards, opponents),
+                () -> new EquityCalculator(handCards, communityCards, deckCards, opponents).calculate());
     }
-    */
-    private Fraction calculateFullHouseProbability() {
-        updateHands(); // Update playerHand and communityCards to the latest
-
-        // Calculate the total number of possible outcomes
-        long totalPossibleOutcomes = calculateTotalPossibleOutcomes();
-
-        // Count occurrences of each card value in the player's hand and community cards
-        int[] valueCounts = new int[Card.Value.values().length];
-        for (Card card : playerHand) {
-            if (card != null)
-                valueCounts[Card.getValueIndex(card.getCardValue())]++;
-        }
-        for (Card card : communityCards) {
-            if (card != null)
-                valueCounts[Card.getValueIndex(card.getCardValue())]++;
-        }
 
-        // Check if a full house is already formed or if it's impossible to form one
-        if (isFullHouseAlreadyFormed(valueCounts)) {
-            return new Fraction(1, 1); // Full house already formed, return 1/1
-        } else if (communityCards.length == 5 && !canFormAnyFullHouse(valueCounts)) {
-            return new Fraction(0, 1); // Impossible to form a full house with all community cards dealt, return 0/1
-        }
-
-        long favorableOutcomes = calculateFullHouseFavorableOutcomes(valueCounts);
-
-        return new Fraction(favorableOutcomes, totalPossibleOutcomes);
+    public AnytimeResult calculateWithin(Duration budget) {
+        return calculateWithin(0, budget);
     }
 
-    private boolean isFullHouseAlreadyFormed(int[] valueCounts) {
-        // Check if there are both three of a kind and a pair in the hand or table
-        boolean threeFound = false;
-        boolean pairFound = false;
-        for (int count : valueCounts) {
-            if (count == 3) {
-                threeFound = true;
-            } else if (count == 2) {
-                pairFound = true;
-            }
+    // Exact when the estimated cost of enumerating fits in what is left of the budget, otherwise sampled until the
+    // budget runs out; the result says which it got and how tight the estimate is. Cached answers count as free.
+    public AnytimeResult calculateWithin(int opponents, Duration budget) {
+        if (budget == null || budget.isNegative()) {
+            throw new IllegalArgumentException("Time budget must not be negative.");
         }
-        return threeFound && pairFound; // Return true if both conditions for a full house are met
-    }
-
-    private boolean canFormAnyFullHouse(int[] valueCounts) {
-        // Check for the possibility of forming a full house based on current valueCounts
-        int pairs = 0;
-        int triples = 0;
-
-        for (int count : valueCounts) {
-            if (count == 3) triples++;
-            else if (count == 2) pairs++;
+        if (opponents < 0 || opponents > MonteCarloSimulator.MAX_OPPONENTS) {
+            throw new IllegalArgumentException("Number of opponents must be between 0 and " + MonteCarloSimulator.MAX_OPPONENTS + ".");
         }
-
-        // Conditions where it's still possible to form a full house
-        if (triples > 0 || pairs > 1 || (pairs == 1 && triples == 0 && communityCards.length < 5)) {
-            return true;
-        }
-
-        return false; // No possible full house can be formed
-    }
-
-    private long calculateFullHouseFavorableOutcomes(int[] valueCounts) {
-        long favorableOutcomes = 0;
-
-        // Calculate favorable outcomes for each pair of values (one for three of a kind, one for a pair)
-        for (int i = 0; i < valueCounts.length; i++) {
-            for (int j = 0; j < valueCounts.length; j++) {
-                if (i != j) {
-                    // Combinations for the 'three of a kind' part of the full house
-                    long threeKindCombinations = calculateCombinationsForThreeOfAKind(i, valueCounts);
-                    // Combinations for the 'pair' part of the full house
-                    long pairCombinations = calculateCombinationsForPair(j, valueCounts);
-
-                    // Multiply the combinations for the 'three of a kind' and 'pair' to get total combinations for this pair of values
-                    favorableOutcomes += threeKindCombinations * pairCombinations;
-                }
-            }
-        }
-        return favorableOutcomes;
-    }
-
-    private long calculateCombinationsForThreeOfAKind(int valueIndex, int[] valueCounts) {
-        int cardsOfValue = valueCounts[valueIndex];
-        int remainingCardsOfValue = deck.countCardsWithValue(Card.Value.values()[valueIndex]);
-
-        if (cardsOfValue == 2 && remainingCardsOfValue >= 1) {
-            // Need one more card to complete three of a kind
-            return Combination.calculateCombinations(remainingCardsOfValue, 1);
-        } else if (cardsOfValue == 1 && remainingCardsOfValue >= 2) {
-            // Need two more cards to complete three of a kind
-        return Combination.calculateCombinations(remainingCardsOfValue, 2);
-    } else if (cardsOfValue == 0 && remainingCardsOfValue >= 3) {
-            // Need all three cards for three of a kind
-            return Combination.calculateCombinations(remainingCardsOfValue, 3);
-        }
-        return 0;
-    }
-
-    private long calculateCombinationsForPair(int valueIndex, int[] valueCounts) {
-        int cardsOfValue = valueCounts[valueIndex];
-        int remainingCardsOfValue = deck.countCardsWithValue(Card.Value.values()[valueIndex]);
-
-        if (cardsOfValue == 1 && remainingCardsOfValue >= 1) {
-            // Need one more card to complete a pair
-            return Combination.calculateCombinations(remainingCardsOfValue, 1);
-        } else if (cardsOfValue == 0 && remainingCardsOfValue >= 2) {
-            // Need two cards for a pair
-            return Combination.calculateCombinations(remainingCardsOfValue, 2);
-        }
-        return 0;
-    }
-/*
-    private Fraction calculateFourOfAKindProbability() {
-        // Update playerHand and communityCards to the latest
         updateHands();
-
-        // Calculate the total number of possible outcomes
-        long totalPossibleOutcomes =calculateTotalPossibleOutcomes();
-        // Count occurrences of each card value in the player's hand and community cards
-        int[] valueCounts = new int[Card.Value.values().length];
-        for (Card card : playerHand) {
-            if (card != null) {
-                valueCounts[Card.getValueIndex(card.getCardValue())]++;
-            }
-        }
-        for (Card card : communityCards) {
-            if (card != null) {
-                valueCounts[Card.getValueIndex(card.getCardValue())]++;
-            }
-        }
-
-        long favorableOutcomes = 0;
-
-        // Calculate the favorable outcomes for each card value to form a Four of a Kind
-        for (int i = 0; i < valueCounts.length; i++) {
-            int count = valueCounts[i];
-            int remainingCardsOfValue = deck.countCardsWithValue(Card.Value.values()[i]);
-
-            if (count == 1 && remainingCardsOfValue >= 3) {
-                // If there is one card of this value, need three more for Four of a Kind
-                favorableOutcomes += Combination.calculateCombinations(remainingCardsOfValue, 3);
-            } else if (count == 2 && remainingCardsOfValue >= 2) {
-                // If there are two cards of this value, need two more for Four of a Kind
-                favorableOutcomes += Combination.calculateCombinations(remainingCardsOfValue, 2);
-            } else if (count == 3 && remainingCardsOfValue >= 1) {
-                // If there are three cards of this value, need one more for Four of a Kind
-                favorableOutcomes += Combination.calculateCombinations(remainingCardsOfValue, 1);
-            }
-        }
-
-        return new Fraction(favorableOutcomes, totalPossibleOutcomes);
-    }
- */
-    private Fraction calculateFourOfAKindProbability() {
-    updateHands(); // Update playerHand and communityCards to the latest
-    // Calculate the total number of possible outcomes
-    long totalPossibleOutcomes = calculateTotalPossibleOutcomes();
-
-    // Count occurrences of each card value in the player's hand and community cards
-    int[] valueCounts = new int[Card.Value.values().length];
-    for (Card card : playerHand) {
-        if (card != null) {
-            valueCounts[Card.getValueIndex(card.getCardValue())]++;
-        }
-    }
-    for (Card card : communityCards) {
-        if (card != null) {
-            valueCounts[Card.getValueIndex(card.getCardValue())]++;
-        }
-    }
-
-    // Check if a four-of-a-kind is already formed or if it's impossible to form one
-    if (isFourOfAKindAlreadyFormed(valueCounts)) {
-        return new Fraction(1, 1); // Four-of-a-kind already formed, return 1/1
-    } else if (communityCards.length == 5 && !canFormAnyFourOfAKind(valueCounts)) {
-        return new Fraction(0, 1); // Impossible to form a four-of-a-kind with all community cards dealt, return 0/1
-    }
-
-    long favorableOutcomes = calculateFourOfAKindFavorableOutcomes(valueCounts);
-
-    return new Fraction(favorableOutcomes, totalPossibleOutcomes);
-}
-
-    private boolean isFourOfAKindAlreadyFormed(int[] valueCounts) {
-        // Check if there is four of a kind in the hand or table
-        for (int count : valueCounts) {
-            if (count == 4) {
-                return true; // Four-of-a-kind is already formed
-            }
-        }
-        return false; // No four-of-a-kind found
-    }
-
-    private boolean canFormAnyFourOfAKind(int[] valueCounts) {
-        // Check for the possibility of forming a four-of-a-kind based on current valueCounts
-        for (int count : valueCounts) {
-            if (count >= 1) {
-                // As long as there's at least one card of the value and remaining community cards, there's a possibility
-                return true;
-            }
-        }
-        return false; // No possible four-of-a-kind can be formed
-    }
-
-    private long calculateFourOfAKindFavorableOutcomes(int[] valueCounts) {
-        long favorableOutcomes = 0;
-
-        // Calculate the favorable outcomes for each card value to form a Four of a Kind
-        for (int i = 0; i < valueCounts.length; i++) {
-            int count = valueCounts[i];
-            int remainingCardsOfValue = deck.countCardsWithValue(Card.Value.values()[i]);
-
-            if (count == 1 && remainingCardsOfValue >= 3) {
-                // If there is one card of this value, need three more for Four of a Kind
-                favorableOutcomes += Combination.calculateCombinations(remainingCardsOfValue, 3);
-            } else if (count == 2 && remainingCardsOfValue >= 2) {
-                // If there are two cards of this value, need two more for Four of a Kind
-                favorableOutcomes += Combination.calculateCombinations(remainingCardsOfValue, 2);
-            } else if (count == 3 && remainingCardsOfValue >= 1) {
-                // If there are three cards of this value, need one more for Four of a Kind
-                favorableOutcomes += Combination.calculateCombinations(remainingCardsOfValue, 1);
-            }
-        }
-
-        return favorableOutcomes;
-    }
-    /*
-    private Fraction calculateStraightFlushProbability() {
-        // Update playerHand and communityCards to the latest
+        long start = System.nanoTime();
+        long deadline = start + (budget.compareTo(MAX_BUDGET) > 0 ? MAX_BUDGET : budget).toNanos();
+        long handCards = player.getHandCardSet().getMask();
+        long communityCards = table.getCommunityCardSet().getMask();
+        long deckCards = deck.getCardSet().getMask();
+
+        HandDistribution distribution = null;
+        ExactCost distributionCost = ExactCost.distribution(communityCards, deckCards, rules);
+        if (distributionIsCached(handCards, communityCards, deckCards)) {
+            distribution = currentHandDistribution();
+        } else if (distributionCost.fitsBefore(deadline)) {
+            distribution = distributionCost.run(this::currentHandDistribution);
+        }
+        // Only heads-up Hold'em equity is exact: every board against every opponent holding
+        EquityResult equity = null;
+        if (opponents == 1 && rules == GameRules.HOLDEM) {
+            ResultCache.Key key = ResultCache.key(handCards, communityCards, deckCards, 1);
+            boolean onStreetCache = streetCache != null && streetCache.continues(handCards, communityCards, deckCards);
+            ExactCost flopCost = ExactCost.headsUpEquity(communityCards, deckCards, true);
+            ExactCost streetCost = ExactCost.headsUpEquity(communityCards, deckCards, false);
+            if ((onStreetCache && streetCache.hasHeadsUpEquity()) || EQUITY_CACHE.containsKey(key)) {
+                equity = exactHeadsUpEquity(handCards, communityCards, deckCards, streetCache);
+            } else if (onStreetCache && flopCost.fitsBefore(deadline)) {
+                equity = flopCost.run(() -> exactHeadsUpEquity(handCards, communityCards, deckCards, streetCache));
+            } else if (streetCost.fitsBefore(deadline)) { // this street on its own, past a street cache
+                equity = streetCost.run(() -> onStreetCache
+                        ? calculatedHeadsUpEquity(handCards, communityCards, deckCards)
+                        : exactHeadsUpEquity(handCards, communityCards, deckCards,
+                                streetCacheFor(handCards, communityCards, deckCards)));
+            }
+        }
+        if (distribution != null && (opponents == 0 || equity != null)) {
+            return new AnytimeResult(distribution, true, 0, equity, true, 0, System.nanoTime() - start);
+        }
+
+        // Whatever did not fit is sampled for the rest of the budget, and sampling gives the distribution as well
+        SimulationResult sampled = new MonteCarloSimulator(handCards, communityCards, deckCards, opponents, rules)
+                .simulateUntil(deadline);
+        boolean distributionExact = distribution != null;
+        double distributionErrorBound = 0;
+        if (!distributionExact) {
+            long[] counts = new long[HandType.values().length];
+            for (HandType handType : HandType.values()) {
+                counts[handType.ordinal()] = sampled.getHandTypeCount(handType);
+                distributionErrorBound = Math.max(distributionErrorBound, sampled.getErrorBound(handType));
+            }
+            distribution = new HandDistribution(counts);
+        }
+        boolean equityExact = equity != null;
+        if (opponents > 0 && !equityExact) {
+            equity = new EquityResult(sampled);
+        }
+        return new AnytimeResult(distribution, distributionExact, distributionErrorBound, equity, equityExact,
+                equityExact ? 0 : sampled.getEquityErrorBound(), System.nanoTime() - start);
+    }
+
+    public Flow.Publisher<AnytimeResult> publishDistribution(int opponents) {
+        return publishDistribution(opponents, DEFAULT_TARGET_ERROR, ForkJoinPool.commonPool());
+    }
+
+    // Snapshots for the cards as they are now, refined in the background while a subscriber asks for more
+    public Flow.Publisher<AnytimeResult> publishDistribution(int opponents, double targetError, Executor executor) {
         updateHands();
-
-        // Calculate the total number of possible outcomes
-        long totalPossibleOutcomes =calculateTotalPossibleOutcomes();
-        // A Straight Flush requires a sequence of 5 cards of the same suit
-        long favorableOutcomes = 0;
-
-        // Iterate through all suits
-        for (Card.Suit suit : Card.Suit.values()) {
-            boolean[] presentValues = new boolean[Card.Value.values().length];
-            for (Card card : playerHand) {
-                if (card != null && card.getCardSuit() == suit) {
-                    presentValues[Card.getValueIndex(card.getCardValue())] = true;
-                }
-            }
-            for (Card card : communityCards) {
-                if (card != null && card.getCardSuit() == suit) {
-                    presentValues[Card.getValueIndex(card.getCardValue())] = true;
-                }
-            }
-
-            // Check for possible straight flushes for this suit
-            for (int i = 0; i <= presentValues.length - 5; i++) {
-                if (canFormStraightFlush(presentValues, i)) {
-                    favorableOutcomes += countStraightFlushCombinations(presentValues, i, suit);
-                }
-            }
-        }
-
-        return new Fraction(favorableOutcomes, totalPossibleOutcomes);
-    }
-
-    private boolean canFormStraightFlush(boolean[] presentValues, int start) {
-        // Check if a sequence of five consecutive cards of the same suit is possible starting from 'start'
-        for (int i = start; i < start + 5; i++) {
-            if (!presentValues[i]) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private long countStraightFlushCombinations(boolean[] presentValues, int start, Card.Suit suit) {
-        // Count the combinations that can complete the straight flush
-        long combinations = 1;
-        for (int i = start; i < start + 5; i++) {
-            if (!presentValues[i]) {
-                // Count the remaining cards of this value and suit in the deck
-                int remainingCardsOfValueAndSuit = deck.countCardsOfValueAndSuit(Card.Value.values()[i], suit);
-                combinations *= remainingCardsOfValueAndSuit;
-            }
-        }
-        return combinations;
-    }
-     */
-    private Fraction calculateStraightFlushProbability() {
-        updateHands(); // Update playerHand and communityCards to the latest
-
-        // Calculate the total number of possible outcomes
-        long totalPossibleOutcomes = calculateTotalPossibleOutcomes();
-        long favorableOutcomes = 0;
-
-        // Iterate through all suits
-        for (Card.Suit suit : Card.Suit.values()) {
-            boolean[] presentValues = new boolean[Card.Value.values().length];
-            for (Card card : playerHand) {
-                if (card != null && card.getCardSuit() == suit) {
-                    presentValues[Card.getValueIndex(card.getCardValue())] = true;
-                }
-            }
-            for (Card card : communityCards) {
-                if (card != null && card.getCardSuit() == suit) {
-                    presentValues[Card.getValueIndex(card.getCardValue())] = true;
-                }
-            }
-
-            // Check if a straight flush is already formed or if it's impossible to form one
-            if (isStraightFlushAlreadyFormed(presentValues)) {
-                return new Fraction(1, 1); // Straight flush already formed, return 1/1
-            } else if (communityCards.length == 5 && !canFormAnyStraightFlush(presentValues)) {
-                return new Fraction(0, 1); // Impossible to form a straight flush with all community cards dealt, return 0/1
-            }
-
-            // Calculate favorable outcomes for possible straight flushes for this suit
-            for (int i = 0; i <= presentValues.length - 5; i++) {
-                if (canFormStraightFlush(presentValues, i)) {
-                    favorableOutcomes += countStraightFlushCombinations(presentValues, i, suit);
-                }
-            }
-        }
-
-        return new Fraction(favorableOutcomes, totalPossibleOutcomes);
+        long handCards = player.getHandCardSet().getMask();
+        long communityCards = table.getCommunityCardSet().getMask();
+        long deckCards = deck.getCardSet().getMask();
+        return new DistributionPublisher(handCards, communityCards, deckCards, opponents, rules, targetError, executor,
+                preflopTableFor(handCards, communityCards, deckCards), streetCacheFor(handCards, communityCards, deckCards));
     }
 
-    private boolean isStraightFlushAlreadyFormed(boolean[] presentValues) {
-        // Iterate through present values to check for five consecutive cards of the same suit
-        for (int i = 0; i <= presentValues.length - 5; i++) {
-            if (canFormStraightFlush(presentValues, i)) {
-                return true; // Straight flush is already formed
-            }
-        }
-        return false; // No straight flush found
-    }
-
-    private boolean canFormAnyStraightFlush(boolean[] presentValues) {
-        // Iterate over all possible starts of a straight flush (0 to 9 for a standard 13-card suit)
-        for (int start = 0; start <= presentValues.length - 5; start++) {
-            if (canFormStraightFlush(presentValues, start)) {
-                return true; // Found a potential straight flush formation
-            }
-        }
-        return false; // No possible straight flush can be formed
+    private boolean distributionIsCached(long handCards, long communityCards, long deckCards) {
+        return (handDistribution != null && handCards == distributionHandCards && communityCards == distributionCommunityCards
+                && deckCards == distributionDeckCards) || preflopTableFor(handCards, communityCards, deckCards) != null
+                || DISTRIBUTION_CACHE.containsKey(ResultCache.key(handCards, communityCards, deckCards, rules.ordinal()));
     }
 
-    private boolean canFormStraightFlush(boolean[] presentValues, int start) {
-        // Check if a sequence of five consecutive cards of the same suit is possible starting from 'start'
-        for (int i = start; i < start + 5; i++) {
-            if (!presentValues[i]) {
-                return false;
-            }
+    // Exact heads-up equity from the street cache when the state continues it, otherwise from the shared cache
+    static EquityResult exactHeadsUpEquity(long handCards, long communityCards, long deckCards, StreetCache streets) {
+        if (streets != null && streets.continues(handCards, communityCards, deckCards)) {
+            return streets.getHeadsUpEquity(handCards, communityCards, deckCards);
         }
-        return true;
+        return calculatedHeadsUpEquity(handCards, communityCards, deckCards);
     }
 
-    private long countStraightFlushCombinations(boolean[] presentValues, int start, Card.Suit suit) {
-        // Count the combinations that can complete the straight flush
-        long combinations = 1;
-        for (int i = start; i < start + 5; i++) {
-            if (!presentValues[i]) {
-                // Count the remaining cards of this value and suit in the deck
-                int remainingCardsOfValueAndSuit = deck.countCardsOfValueAndSuit(Card.Value.values()[i], suit);
-                combinations *= remainingCardsOfValueAndSuit;
-            }
-        }
-        return combinations;
+    private static EquityResult calculatedHeadsUpEquity(long handCards, long communityCards, long deckCards) {
+        return EQUITY_CACHE.computeIfAbsent(ResultCache.key(handCards, communityCards, deckCards, 1),
+                () -> new EquityCalculator(handCards, communityCards, deckCards, 1).calculate());
     }
-    private Fraction calculateRoyalFlushProbability() {
-        updateHands(); // Update playerHand and communityCards to the latest
-
-        // Calculate the total number of possible outcomes
-        long totalPossibleOutcomes = calculateTotalPossibleOutcomes();
 
-        // Check if a royal flush is already formed or if it's impossible to form one
-        if (isRoyalFlushAlreadyFormed()) {
-            return new Fraction(1, 1); // Royal flush already formed, return 1/1
-        } else if (communityCards.length == 5 && !canFormAnyRoyalFlush()) {
-            return new Fraction(0, 1); // Impossible to form a royal flush with all community cards dealt, return 0/1
-        }
-
-        long favorableOutcomes = 0;
-
-        // Check for royal flush in each suit
-        for (Card.Suit suit : Card.Suit.values()) {
-            favorableOutcomes += calculateRoyalFlushForSuit(suit);
-        }
-
-        return new Fraction(favorableOutcomes, totalPossibleOutcomes);
+    public OutsReport calculateOuts() {
+        // Which of the cards left in the deck improve the hand if they come next; on the flop it shares the street cache
+        updateHands();
+        long handCards = player.getHandCardSet().getMask();
+        long communityCards = table.getCommunityCardSet().getMask();
+        long deckCards = deck.getCardSet().getMask();
+        requireHoldem("Outs");
+        return new OutsCalculator(handCards, communityCards, deckCards)
+                .calculate(streetCacheFor(handCards, communityCards, deckCards), new OutsReport());
     }
 
-    private boolean isRoyalFlushAlreadyFormed() {
-        // Check each suit for an existing royal flush
-        for (Card.Suit suit : Card.Suit.values()) {
-            if (calculateRoyalFlushForSuit(suit) == 1) {
-                return true; // Royal flush is already formed
-            }
-        }
-        return false; // No royal flush found
-    }
-
-    private boolean canFormAnyRoyalFlush() {
-        // Check if it's still possible to form a royal flush with the remaining cards
-        for (Card.Suit suit : Card.Suit.values()) {
-            boolean canForm = true;
-            for (Card.Value value : new Card.Value[]{Card.Value.TEN, Card.Value.JACK, Card.Value.QUEEN, Card.Value.KING, Card.Value.ACE}) {
-                if (!isCardAvailable(value, suit)) {
-                    canForm = false;
-                    break; // If any card needed for a royal flush in this suit is not available, break
-                }
-            }
-            if (canForm) {
-                return true; // Found a suit where a royal flush can potentially be formed
-            }
-        }
-        return false; // No possible royal flush can be formed
+    public RangeEquityResult calculateEquity(Range opponentRange) {
+        // One opponent whose holding is drawn from a weighted range instead of any two cards
+        updateHands();
+        requireHoldem("Range equity");
+        return new RangeEquityCalculator(player.getHandCardSet().getMask(), table.getCommunityCardSet().getMask(),
+                deck.getCardSet().getMask(), opponentRange).calculate();
     }
-    private int calculateRoyalFlushForSuit(Card.Suit suit) {
-        // The specific cards needed for a Royal Flush of the given suit
-        Card.Value[] requiredValues = {Card.Value.TEN, Card.Value.JACK, Card.Value.QUEEN, Card.Value.KING, Card.Value.ACE};
-
-        // Check if the required cards of the specific suit are still available in the deck
-        for (Card.Value value : requiredValues) {
-            if (!isCardAvailable(value, suit)) {
-                return 0; // If any one card is not available, a Royal Flush is not possible
-            }
-        }
 
-        // All required cards are available, therefore 1 favorable outcome
-        return 1;
+    public static ResultCache<HandDistribution> getDistributionCache() {
+        return DISTRIBUTION_CACHE;
     }
 
-    private boolean isCardAvailable(Card.Value value, Card.Suit suit) {
-        // Check if a specific card is still in the deck, not in the player's hand or community cards
-        for (Card card : playerHand) {
-            if (card != null && card.getCardValue() == value && card.getCardSuit() == suit) {
-                return false; // Card is in player's hand
-            }
-        }
-
-        for (Card card : communityCards) {
-            if (card != null && card.getCardValue() == value && card.getCardSuit() == suit) {
-                return false; // Card is in community cards
-            }
-        }
-
-        return deck.containsCard(new Card(value, suit));
+    public static ResultCache<EquityResult> getEquityCache() {
+        return EQUITY_CACHE;
     }
 
-// The calculateRoyalFlushForSuit and isCardAvailable methods remain unchanged.
-    /*
-    private Fraction calculateRoyalFlushProbability() {
-        // Update playerHand and communityCards to the latest
-        updateHands();
-
-        // Calculate the total number of possible outcomes
-        long totalPossibleOutcomes =calculateTotalPossibleOutcomes();
-
-        long favorableOutcomes = 0;
-
-        // Check for royal flush in each suit
-        for (Card.Suit suit : Card.Suit.values()) {
-            favorableOutcomes += calculateRoyalFlushForSuit(suit);
+    private void requireHoldem(String query) {
+        if (rules != GameRules.HOLDEM) {
+            throw new IllegalStateException(query + " is only available for " + GameRules.HOLDEM.getDisplayName() + ".");
         }
-
-        return new Fraction(favorableOutcomes, totalPossibleOutcomes);
     }
 
-    private int calculateRoyalFlushForSuit(Card.Suit suit) {
-        // The specific cards needed for a Royal Flush of the given suit
-        Card.Value[] requiredValues = {Card.Value.TEN, Card.Value.JACK, Card.Value.QUEEN, Card.Value.KING, Card.Value.ACE};
-
-        // Check if the required cards of the specific suit are still available in the deck
-        for (Card.Value value : requiredValues) {
-            if (!isCardAvailable(value, suit)) {
-                return 0; // If any one card is not available, a Royal Flush is not possible
-            }
+    // The precomputed pre-flop table only applies before the flop with nothing but the hand missing from the deck
+    private PreflopTable preflopTableFor(long handCards, long communityCards, long deckCards) {
+        if (rules != GameRules.HOLDEM || table.getRoundState() != Table.RoundState.PRE_FLOP || communityCards != 0 || Long.bitCount(handCards) != 2
+                || deckCards != (CardSet.FULL_DECK & ~handCards)) {
+            return null;
         }
-
-        // All required cards are available, therefore 1 favorable outcome
-        return 1;
+        return PreflopTable.getDefault();
     }
 
-    private boolean isCardAvailable(Card.Value value, Card.Suit suit) {
-        // Check if a specific card is still in the deck, not in the player's hand or community cards
-        for (Card card : playerHand) {
-            if (card != null && card.getCardValue() == value && card.getCardSuit() == suit) {
-                return false; // Card is in player's hand
-            }
+    // Built on the flop and kept while the turn and river are dealt from the same deck; null before the flop
+    private StreetCache streetCacheFor(long handCards, long communityCards, long deckCards) {
+        if (streetCache != null && streetCache.continues(handCards, communityCards, deckCards)) {
+            return streetCache;
         }
-
-        for (Card card : communityCards) {
-            if (card != null && card.getCardValue() == value && card.getCardSuit() == suit) {
-                return false; // Card is in community cards
-            }
+        if (rules != GameRules.HOLDEM || Long.bitCount(communityCards) != 3) {
+            return null;
         }
-
-        return deck.containsCard(new Card(value, suit));
+        streetCache = new StreetCache(handCards, communityCards, deckCards);
+        return streetCache;
     }
-    private Fraction calculateHighCardProbability() {
-        long totalPossibleOutcomes =calculateTotalPossibleOutcomes();        // Calculate the probability of all other hands
-        Fraction pairProb = calculatePairProbability();
-        Fraction twoPairProb = calculateTwoPairProbability();
-        Fraction threeOfAKindProb = calculateThreeOfAKindProbability();
-        Fraction straightProb = calculateStraightProbability();
-        Fraction flushProb = calculateFlushProbability();
-        Fraction fullHouseProb = calculateFullHouseProbability();
-        Fraction fourOfAKindProb = calculateFourOfAKindProbability();
-        Fraction straightFlushProb = calculateStraightFlushProbability();
-        Fraction royalFlushProb = calculateRoyalFlushProbability();
-
-        // The probability of high card is 1 minus all the probabilities of the other hands
-        long numerator = totalPossibleOutcomes - (pairProb.getNumerator() + twoPairProb.getNumerator() +
-                threeOfAKindProb.getNumerator() + straightProb.getNumerator() +
-                flushProb.getNumerator() + fullHouseProb.getNumerator() +
-                fourOfAKindProb.getNumerator() + straightFlushProb.getNumerator() +
-                royalFlushProb.getNumerator());
-
-        return new Fraction(numerator, totalPossibleOutcomes);
-    }
-
-     */
 
     public enum HandType {
         HIGH_CARD,PAIR, TWO_PAIR, THREE_OF_A_KIND, STRAIGHT, FLUSH, FULL_HOUSE, FOUR_OF_A_KIND, STRAIGHT_FLUSH, ROYAL_FLUSH
@@ -988,33 +352,37 @@ public class ProbabilityCalculator {
 
     // Helper function to format probability output
     private String formatProbabilityOutput(Fraction probability) {
-        if (probability.getNumerator() == 0 && probability.getDenominator() == calculateTotalPossibleOutcomes()) {
+        if (probability.getNumerator() == 0) {
             return "Impossible"; // For combinations with 0 favourable outcomes
-        } else if (probability.getNumerator() == 1 && probability.getDenominator() == 1) {
-            return "Already Met"; // For 1/1 fractions, which are combinations that have already been met
+        } else if (probability.getNumerator() == probability.getDenominator()) {
+            return "Already Met"; // Every runout ends in this hand
         } else {
             return probability.toString(); // For all other cases
         }
     }
 
     public String toString() {
-        System.out.println("Based on Input:");
-        System.out.println("Player Hand: " + player.toString());
-        System.out.println(table.toString());
-        System.out.println("\nTexas Hold'em Hand Probabilities:");
-        System.out.println("Disclaimer: 'Impossible' indicates 0 probability, 'Already Met' indicates 100% probability.");
-        System.out.println("One Pair: " + formatProbabilityOutput(calculateHandProbability(HandType.PAIR)));
-        System.out.println("Two Pair: " + formatProbabilityOutput(calculateHandProbability(HandType.TWO_PAIR)));
-        System.out.println("Three of a Kind: " + formatProbabilityOutput(calculateHandProbability(HandType.THREE_OF_A_KIND)));
-        System.out.println("Straight: " + formatProbabilityOutput(calculateHandProbability(HandType.STRAIGHT)));
-        System.out.println("Flush: " + formatProbabilityOutput(calculateHandProbability(HandType.FLUSH)));
-        System.out.println("Full House: " + formatProbabilityOutput(calculateHandProbability(HandType.FULL_HOUSE)));
-        System.out.println("Four of a Kind: " + formatProbabilityOutput(calculateHandProbability(HandType.FOUR_OF_A_KIND)));
-        System.out.println("Straight Flush: " + formatProbabilityOutput(calculateHandProbability(HandType.STRAIGHT_FLUSH)));
-        System.out.println("Royal Flush: " + formatProbabilityOutput(calculateHandProbability(HandType.ROYAL_FLUSH)));
-        //System.out.println("High Card: " + formatProbabilityOutput(calculateHandProbability(HandType.HIGH_CARD)));
-        return "";  // Return an empty string to match the return type
-    }
-
-
-}
\ No newline at end of file
+        HandDistribution distribution = calculateHandDistribution(); // one enumeration for every line below
+        String newLine = System.lineSeparator();
+        StringBuilder result = new StringBuilder();
+        result.append("Based on Input:").append(newLine);
+        result.append("Player Hand: ").append(player).append(newLine);
+        result.append(table).append(newLine);
+        result.append(newLine).append(rules.getDisplayName()).append(" Hand Probabilities (best final hand over ")
+                .append(distribution.getTotal()).append(" runouts):").append(newLine);
+        result.append("Disclaimer: 'Impossible' indicates 0 probability, 'Already Met' indicates 100% probability.").append(newLine);
+        result.append("High Card: ").append(formatProbabilityOutput(distribution.getFraction(HandType.HIGH_CARD))).append(newLine);
+        result.append("One Pair: ").append(formatProbabilityOutput(distribution.getFraction(HandType.PAIR))).append(newLine);
+        result.append("Two Pair: ").append(formatProbabilityOutput(distribution.getFraction(HandType.TWO_PAIR))).append(newLine);
+        result.append("Three of a Kind: ").append(formatProbabilityOutput(distribution.getFraction(HandType.THREE_OF_A_KIND))).append(newLine);
+        result.append("Straight: ").append(formatProbabilityOutput(distribution.getFraction(HandType.STRAIGHT))).append(newLine);
+        result.append("Flush: ").append(formatProbabilityOutput(distribution.getFraction(HandType.FLUSH))).append(newLine);
+        result.append("Full House: ").append(formatProbabilityOutput(distribution.getFraction(HandType.FULL_HOUSE))).append(newLine);
+        result.append("Four of a Kind: ").append(formatProbabilityOutput(distribution.getFraction(HandType.FOUR_OF_A_KIND))).append(newLine);
+        result.append("Straight Flush: ").append(formatProbabilityOutput(distribution.getFraction(HandType.STRAIGHT_FLUSH))).append(newLine);
+        result.append("Royal Flush: ").append(formatProbabilityOutput(distribution.getFraction(HandType.ROYAL_FLUSH)));
+        return result.toString();
+    }
+
+
+}
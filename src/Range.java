@@ -0,0 +1,232 @@
+import java.util.Locale;
+
+// Weighted set of opponent holdings over all 1326 two-card combos, parsed from notation such as "TT+, AKs, KQo, A5s:0.5"
+public class Range {
+    public static final int COMBO_COUNT = 1326; // 52 choose 2
+    private static final String VALUE_CHARS = "23456789TJQKA";
+    private static final String SUIT_CHARS = "hdcs"; // same order as Card.Suit
+    private static final int VALUE_COUNT = CardSet.VALUE_COUNT;
+    private static final int SUIT_COUNT = CardSet.SUIT_COUNT;
+    private static final long[] COMBO_CARDS = new long[COMBO_COUNT]; // two-bit CardSet mask of each combo
+
+    static {
+        for (int index = 0; index < COMBO_COUNT; index++) {
+            COMBO_CARDS[index] = Combination.unrankCombination(index, 2);
+        }
+    }
+
+    private final float[] weights = new float[COMBO_COUNT]; // indexed by the colex rank of the combo's two cards
+
+    public static Range parse(String notation) {
+        if (notation == null) {
+            throw new IllegalArgumentException("Range notation cannot be null.");
+        }
+        Range range = new Range();
+        for (String part : notation.split(",")) {
+            String token = part.trim();
+            if (!token.isEmpty()) {
+                range.addToken(token);
+            }
+        }
+        return range;
+    }
+
+    // Colex rank of a two-card mask, the index into the weight array
+    public static int comboIndex(long handCards) {
+        if (Long.bitCount(handCards) != 2 || (handCards & ~CardSet.FULL_DECK) != 0) {
+            throw new IllegalArgumentException("A combo has exactly two cards.");
+        }
+        return (int) Combination.rankCombination(handCards);
+    }
+
+    public static long comboCards(int comboIndex) {
+        return COMBO_CARDS[comboIndex];
+    }
+
+    public float getWeight(int comboIndex) {
+        return weights[comboIndex];
+    }
+
+    public float getWeight(long handCards) {
+        return weights[comboIndex(handCards)];
+    }
+
+    public void setWeight(int comboIndex, float weight) {
+        if (!(weight >= 0 && weight <= 1)) {
+            throw new IllegalArgumentException("Weight must be between 0 and 1, got " + weight);
+        }
+        weights[comboIndex] = weight;
+    }
+
+    public void setWeight(long handCards, float weight) {
+        setWeight(comboIndex(handCards), weight);
+    }
+
+    public int getComboCount() { // combos with a non-zero weight
+        int count = 0;
+        for (float weight : weights) {
+            if (weight > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public double getTotalWeight() {
+        double total = 0;
+        for (float weight : weights) {
+            total += weight;
+        }
+        return total;
+    }
+
+    // The live array, for calculators that pack it into their own loops; callers must not write to it
+    float[] weights() {
+        return weights;
+    }
+
+    private void addToken(String token) {
+        float weight = 1;
+        int colon = token.indexOf(':');
+        if (colon >= 0) {
+            try {
+                weight = Float.parseFloat(token.substring(colon + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad weight in range token " + token);
+            }
+            token = token.substring(0, colon).trim();
+        }
+        if (!(weight >= 0 && weight <= 1)) {
+            throw new IllegalArgumentException("Weight must be between 0 and 1 in range token " + token);
+        }
+
+        // A single exact combo, e.g. AhKd
+        if (token.length() == 4 && SUIT_CHARS.indexOf(Character.toLowerCase(token.charAt(1))) >= 0
+                && SUIT_CHARS.indexOf(Character.toLowerCase(token.charAt(3))) >= 0) {
+            long cards = card(token, 0) | card(token, 2);
+            if (Long.bitCount(cards) != 2) {
+                throw new IllegalArgumentException("Duplicate card in range token " + token);
+            }
+            weights[comboIndex(cards)] = weight;
+            return;
+        }
+
+        int dash = token.indexOf('-');
+        String first = dash >= 0 ? token.substring(0, dash).trim() : token;
+        boolean plus = dash < 0 && first.endsWith("+");
+        if (plus) {
+            first = first.substring(0, first.length() - 1);
+        }
+        int high = value(first, 0, token);
+        int low = value(first, 1, token);
+        char suitedness = suitedness(first, token);
+        if (high < low) {
+            int swap = high;
+            high = low;
+            low = swap;
+        }
+
+        if (high == low) {
+            if (suitedness != ' ') {
+                throw new IllegalArgumentException("Pairs cannot be suited or offsuit: " + token);
+            }
+            int top = high; // a lone pair
+            if (plus) {
+                top = VALUE_COUNT - 1;
+            } else if (dash >= 0) {
+                String last = token.substring(dash + 1).trim();
+                top = value(last, 0, token);
+                if (last.length() != 2 || value(last, 1, token) != top) {
+                    throw new IllegalArgumentException("A pair range must end in a pair: " + token);
+                }
+                if (top < high) {
+                    int swap = top;
+                    top = high;
+                    high = swap;
+                }
+            }
+            for (int pair = high; pair <= top; pair++) {
+                addPair(pair, weight);
+            }
+            return;
+        }
+
+        int lowest = low; // kickers from lowest to highest under the same top card
+        int highest = low;
+        if (plus) {
+            highest = high - 1;
+        } else if (dash >= 0) {
+            String last = token.substring(dash + 1).trim();
+            if (value(last, 0, token) != high || suitedness(last, token) != suitedness) {
+                throw new IllegalArgumentException("Both ends of a range must share the top card and suitedness: " + token);
+            }
+            int otherLow = value(last, 1, token);
+            if (otherLow >= high) {
+                throw new IllegalArgumentException("Bad end of range: " + token);
+            }
+            lowest = Math.min(low, otherLow);
+            highest = Math.max(low, otherLow);
+        }
+        for (int kicker = lowest; kicker <= highest; kicker++) {
+            addUnpaired(high, kicker, suitedness, weight);
+        }
+    }
+
+    private void addPair(int value, float weight) {
+        for (int firstSuit = 0; firstSuit < SUIT_COUNT - 1; firstSuit++) {
+            for (int secondSuit = firstSuit + 1; secondSuit < SUIT_COUNT; secondSuit++) {
+                weights[comboIndex(bit(value, firstSuit) | bit(value, secondSuit))] = weight;
+            }
+        }
+    }
+
+    private void addUnpaired(int high, int low, char suitedness, float weight) {
+        for (int highSuit = 0; highSuit < SUIT_COUNT; highSuit++) {
+            for (int lowSuit = 0; lowSuit < SUIT_COUNT; lowSuit++) {
+                boolean suited = highSuit == lowSuit;
+                if ((suitedness == 's' && !suited) || (suitedness == 'o' && suited)) {
+                    continue;
+                }
+                weights[comboIndex(bit(high, highSuit) | bit(low, lowSuit))] = weight;
+            }
+        }
+    }
+
+    private static long bit(int value, int suit) {
+        return 1L << (suit * VALUE_COUNT + value);
+    }
+
+    private static long card(String token, int at) {
+        int value = VALUE_CHARS.indexOf(Character.toUpperCase(token.charAt(at)));
+        int suit = SUIT_CHARS.indexOf(Character.toLowerCase(token.charAt(at + 1)));
+        if (value < 0 || suit < 0) {
+            throw new IllegalArgumentException("Unknown card in range token " + token);
+        }
+        return bit(value, suit);
+    }
+
+    private static int value(String hand, int at, String token) {
+        int value = at < hand.length() ? VALUE_CHARS.indexOf(Character.toUpperCase(hand.charAt(at))) : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Unknown range token " + token);
+        }
+        return value;
+    }
+
+    // 's' for suited, 'o' for offsuit, ' ' for both
+    private static char suitedness(String hand, String token) {
+        if (hand.length() == 2) {
+            return ' ';
+        }
+        char suitedness = hand.length() == 3 ? Character.toLowerCase(hand.charAt(2)) : '?';
+        if (suitedness != 's' && suitedness != 'o') {
+            throw new IllegalArgumentException("Unknown range token " + token);
+        }
+        return suitedness;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d combos, total weight %.2f", getComboCount(), getTotalWeight());
+    }
+}
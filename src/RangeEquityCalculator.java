@@ -0,0 +1,155 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Hero's hand against one opponent holding a weighted range
+public class RangeEquityCalculator {
+    private static final int BOARD_SIZE = 5;
+    private static final long MAX_EXACT_EVALUATIONS = 20_000_000; // above this many board x combo pairs the boards are sampled
+    private static final long BOARDS_PER_TASK = 64; // below this a task stops splitting and walks its boards itself
+
+    private final long handCards;
+    private final long communityCards;
+    private final long[] deckBits; // one single-bit mask per card still in the deck
+    private final int cardsToDeal;
+    private final long[] comboCards; // the range packed down to the live combos with a weight, as parallel arrays
+    private final float[] comboWeights;
+    private final long boardCount;
+    private final boolean exact;
+
+    public RangeEquityCalculator(long handCards, long communityCards, long deckCards, Range range) {
+        if ((handCards & communityCards) != 0 || ((handCards | communityCards) & deckCards) != 0) {
+            throw new IllegalArgumentException("Hand, community cards and deck must not share cards.");
+        }
+        if (range == null) {
+            throw new IllegalArgumentException("Range cannot be null.");
+        }
+        this.handCards = handCards;
+        this.communityCards = communityCards;
+        cardsToDeal = BOARD_SIZE - Long.bitCount(communityCards);
+        deckBits = new long[Long.bitCount(deckCards)];
+        int index = 0;
+        for (long remaining = deckCards; remaining != 0; remaining &= remaining - 1) {
+            deckBits[index++] = Long.lowestOneBit(remaining);
+        }
+        if (cardsToDeal < 0 || cardsToDeal + 2 > deckBits.length) {
+            throw new IllegalArgumentException("Not enough cards left in the deck for this runout.");
+        }
+
+        // Combos touching the hand, the board or a dead card can never be dealt, so they are dropped up front
+        float[] weights = range.weights();
+        int live = 0;
+        for (int combo = 0; combo < Range.COMBO_COUNT; combo++) {
+            if (weights[combo] > 0 && (Range.comboCards(combo) & ~deckCards) == 0) {
+                live++;
+            }
+        }
+        if (live == 0) {
+            throw new IllegalArgumentException("No combo of the range can be dealt from this deck.");
+        }
+        comboCards = new long[live];
+        comboWeights = new float[live];
+        live = 0;
+        for (int combo = 0; combo < Range.COMBO_COUNT; combo++) {
+            if (weights[combo] > 0 && (Range.comboCards(combo) & ~deckCards) == 0) {
+                comboCards[live] = Range.comboCards(combo);
+                comboWeights[live++] = weights[combo];
+            }
+        }
+
+        long allBoards = Combination.calculateCombinations(deckBits.length, cardsToDeal);
+        exact = allBoards <= MAX_EXACT_EVALUATIONS / live;
+        boardCount = exact ? allBoards : Math.max(1, MAX_EXACT_EVALUATIONS / live);
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    public RangeEquityResult calculate() {
+        return calculate(ForkJoinPool.commonPool());
+    }
+
+    public RangeEquityResult calculate(ForkJoinPool pool) {
+        // Exact runs number the boards by the combinatorial number system; sampled runs just split the sample count
+        RangeEquityResult result = pool.invoke(new BoardTask(0, boardCount, new SplittableRandom()));
+        result.setExact(exact);
+        return result;
+    }
+
+    @SuppressWarnings("serial") // ForkJoinTask is Serializable, but tasks only ever run in the pool
+    private class BoardTask extends RecursiveTask<RangeEquityResult> {
+        private final long fromBoard;
+        private final long toBoard;
+        private final SplittableRandom random;
+
+        BoardTask(long fromBoard, long toBoard, SplittableRandom random) {
+            this.fromBoard = fromBoard;
+            this.toBoard = toBoard;
+            this.random = random;
+        }
+
+        @Override
+        protected RangeEquityResult compute() {
+            if (toBoard - fromBoard > BOARDS_PER_TASK) {
+                long middle = (fromBoard + toBoard) >>> 1;
+                BoardTask upper = new BoardTask(middle, toBoard, random.split());
+                upper.fork();
+                RangeEquityResult lower = new BoardTask(fromBoard, middle, random.split()).compute();
+                lower.add(upper.join());
+                return lower;
+            }
+            RangeEquityResult result = new RangeEquityResult();
+            if (exact) {
+                long positions = Combination.unrankCombination(fromBoard, cardsToDeal); // which deck cards make up the board
+                for (long board = fromBoard; board < toBoard; board++) {
+                    long boardCards = communityCards;
+                    for (long remaining = positions; remaining != 0; remaining &= remaining - 1) {
+                        boardCards |= deckBits[Long.numberOfTrailingZeros(remaining)];
+                    }
+                    evaluateBoard(boardCards, result);
+                    if (cardsToDeal > 0) {
+                        positions = Combination.nextCombination(positions);
+                    }
+                }
+                return result;
+            }
+            long[] shuffled = deckBits.clone();
+            for (long sample = fromBoard; sample < toBoard; sample++) {
+                long boardCards = communityCards;
+                for (int i = 0; i < cardsToDeal; i++) { // partial shuffle deals the missing board cards
+                    int swap = i + random.nextInt(shuffled.length - i);
+                    long card = shuffled[swap];
+                    shuffled[swap] = shuffled[i];
+                    shuffled[i] = card;
+                    boardCards |= card;
+                }
+                evaluateBoard(boardCards, result);
+            }
+            return result;
+        }
+
+        // Every combo of the range that the board leaves live, weighted; primitive loop with no per-combo objects
+        private void evaluateBoard(long board, RangeEquityResult result) {
+            int heroValue = HandEvaluator.evaluate(handCards | board);
+            double wins = 0;
+            double ties = 0;
+            double losses = 0;
+            for (int combo = 0; combo < comboCards.length; combo++) {
+                long cards = comboCards[combo];
+                if ((cards & board) != 0) {
+                    continue;
+                }
+                int opponentValue = HandEvaluator.evaluate(board | cards);
+                if (opponentValue > heroValue) {
+                    losses += comboWeights[combo];
+                } else if (opponentValue == heroValue) {
+                    ties += comboWeights[combo];
+                } else {
+                    wins += comboWeights[combo];
+                }
+            }
+            result.record(wins, ties, losses);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.Locale;
+
+public class RangeEquityResult {
+    // Each (board, opponent combo) pair counts with the combo's range weight
+    private double winWeight;
+    private double tieWeight;
+    private double lossWeight;
+    private long boards;
+    private boolean exact = true; // false once the boards are a random sample
+
+    void record(double wins, double ties, double losses) {
+        winWeight += wins;
+        tieWeight += ties;
+        lossWeight += losses;
+        boards++;
+    }
+
+    void add(RangeEquityResult other) {
+        winWeight += other.winWeight;
+        tieWeight += other.tieWeight;
+        lossWeight += other.lossWeight;
+        boards += other.boards;
+        exact &= other.exact;
+    }
+
+    void setExact(boolean exact) {
+        this.exact = exact;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    public long getBoards() {
+        return boards;
+    }
+
+    public double getWinRate() {
+        return rate(winWeight);
+    }
+
+    public double getTieRate() {
+        return rate(tieWeight);
+    }
+
+    public double getLossRate() {
+        return rate(lossWeight);
+    }
+
+    public double getEquity() {
+        return rate(winWeight + tieWeight / 2);
+    }
+
+    private double rate(double weight) {
+        double total = winWeight + tieWeight + lossWeight;
+        return total == 0 ? 0 : weight / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "Win: %.4f, Tie: %.4f, Loss: %.4f, Equity: %.4f (%d boards, %s)",
+                getWinRate(), getTieRate(), getLossRate(), getEquity(), boards, exact ? "exact" : "sampled");
+    }
+}
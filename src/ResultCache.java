@@ -0,0 +1,180 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Size-bounded LRU cache of calculator results, keyed by the suit-canonical known and dead cards. The entries are
+// split over independently locked segments by key hash, so threads hitting different keys rarely share a lock;
+// each segment keeps its own LRU order over its share of the bound.
+public class ResultCache<V> {
+    private static final int MAX_SEGMENTS = 16;
+
+    private final int maxEntries;
+    private final Segment<V>[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) // generic array creation
+    public ResultCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        this.maxEntries = maxEntries;
+        int segmentCount = Integer.highestOneBit(Math.min(MAX_SEGMENTS, maxEntries)); // a power of two, for masking
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) { // the shares add up to maxEntries exactly
+            segments[i] = new Segment<>(maxEntries / segmentCount + (i < maxEntries % segmentCount ? 1 : 0), evictions);
+        }
+    }
+
+    // hand, board and deck as CardSet masks; variant separates results that depend on more than the cards.
+    // Hand and board go in as their canonical index; the dead cards are relabelled the way that makes them smallest
+    // among the relabellings that keep the hand and board canonical, so isomorphic states meet on one key.
+    public static Key key(long handCards, long communityCards, long deckCards, int variant) {
+        long deadCards = CardSet.FULL_DECK & ~(handCards | communityCards | deckCards);
+        int permutation = SuitCanonicalizer.canonicalPermutation(handCards, communityCards, deadCards);
+        return new Key(SuitCanonicalizer.canonicalIndex(handCards, communityCards),
+                SuitCanonicalizer.permute(deadCards, permutation), variant);
+    }
+
+    public V get(Key key) {
+        V value;
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment) { // even a read reorders an access-ordered map
+            value = segment.get(key);
+        }
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    // A probe that leaves the hit and miss counts and the LRU order alone, for deciding how to answer
+    public boolean containsKey(Key key) {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.containsKey(key);
+        }
+    }
+
+    public void put(Key key, V value) {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+
+    // Computes outside the lock, so two threads missing on the same key may both compute it
+    public V computeIfAbsent(Key key, Supplier<V> compute) {
+        V value = get(key);
+        if (value == null) {
+            value = compute.get();
+            put(key, value);
+        }
+        return value;
+    }
+
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    // Summed segment by segment, so under concurrent writes it is a snapshot of each rather than of the whole
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long lookups = getHits() + getMisses();
+        return lookups == 0 ? 0 : (double) getHits() / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d/%d hits=%d misses=%d evictions=%d hitRate=%.3f",
+                size(), maxEntries, getHits(), getMisses(), getEvictions(), getHitRate());
+    }
+
+    private Segment<V> segmentFor(Key key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    // Access order turns the map into an LRU list; the eldest entry goes once the segment's share is passed
+    @SuppressWarnings("serial") // never serialized
+    private static final class Segment<V> extends LinkedHashMap<Key, V> {
+        private final int maxEntries;
+        private final LongAdder evictions;
+
+        Segment(int maxEntries, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+            if (size() > maxEntries) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public static final class Key {
+        private final long stateIndex; // SuitCanonicalizer.canonicalIndex of hand and board
+        private final long deadCards;
+        private final int variant;
+
+        private Key(long stateIndex, long deadCards, int variant) {
+            this.stateIndex = stateIndex;
+            this.deadCards = deadCards;
+            this.variant = variant;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return stateIndex == key.stateIndex && deadCards == key.deadCards && variant == key.variant;
+        }
+
+        @Override
+        public int hashCode() {
+            long mixed = stateIndex * 0x9E3779B97F4A7C15L + deadCards;
+            mixed = mixed * 0x9E3779B97F4A7C15L + variant;
+            return (int) (mixed ^ (mixed >>> 32));
+        }
+    }
+}
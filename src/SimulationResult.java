@@ -0,0 +1,147 @@
+public class SimulationResult {
+    public static final double Z_95 = 1.96; // normal quantile for a two-sided 95% interval
+    private static final ProbabilityCalculator.HandType[] HAND_TYPES = ProbabilityCalculator.HandType.values();
+
+    private final long[] handTypeCounts = new long[HAND_TYPES.length];
+    private long samples;
+    private long wins;
+    private long ties;
+    private long losses;
+    private double equitySum; // a tie with k opponents is worth 1/(k+1) of the pot
+    private double equitySquareSum;
+
+    void record(int handTypeIndex, boolean beaten, int tiedOpponents) {
+        samples++;
+        handTypeCounts[handTypeIndex]++;
+        double equity;
+        if (beaten) {
+            losses++;
+            equity = 0;
+        } else if (tiedOpponents > 0) {
+            ties++;
+            equity = 1.0 / (tiedOpponents + 1);
+        } else {
+            wins++;
+            equity = 1;
+        }
+        equitySum += equity;
+        equitySquareSum += equity * equity;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getTies() {
+        return ties;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getHandTypeCount(ProbabilityCalculator.HandType handType) {
+        return handTypeCounts[handType.ordinal()];
+    }
+
+    public double getFrequency(ProbabilityCalculator.HandType handType) {
+        return rate(handTypeCounts[handType.ordinal()]);
+    }
+
+    public double getErrorBound(ProbabilityCalculator.HandType handType) {
+        return proportionErrorBound(handTypeCounts[handType.ordinal()]);
+    }
+
+    public double getWinRate() {
+        return rate(wins);
+    }
+
+    public double getWinErrorBound() {
+        return proportionErrorBound(wins);
+    }
+
+    public double getTieRate() {
+        return rate(ties);
+    }
+
+    public double getTieErrorBound() {
+        return proportionErrorBound(ties);
+    }
+
+    public double getLossRate() {
+        return rate(losses);
+    }
+
+    public double getLossErrorBound() {
+        return proportionErrorBound(losses);
+    }
+
+    public double getEquity() {
+        return samples == 0 ? 0 : equitySum / samples;
+    }
+
+    double getEquitySquareSum() {
+        return equitySquareSum;
+    }
+
+    public double getEquityErrorBound() {
+        return equityErrorBound(samples, equitySum, equitySquareSum);
+    }
+
+    // The widest half-width among everything reported, used as the stopping rule
+    public double getMaxErrorBound() {
+        double widest = Math.max(getEquityErrorBound(), Math.max(getWinErrorBound(), Math.max(getTieErrorBound(), getLossErrorBound())));
+        for (long count : handTypeCounts) {
+            widest = Math.max(widest, proportionErrorBound(count));
+        }
+        return widest;
+    }
+
+    private double rate(long count) {
+        return samples == 0 ? 0 : (double) count / samples;
+    }
+
+    private double proportionErrorBound(long count) {
+        return wilsonErrorBound(rate(count), samples);
+    }
+
+    // How far the Wilson score 95% interval reaches from the observed rate, on its wider side. Unlike the normal
+    // approximation it stays above 0 when a count is 0 or every sample, where the rate is least certain.
+    static double wilsonErrorBound(double rate, long samples) {
+        if (samples == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double z2 = Z_95 * Z_95;
+        double denominator = 1 + z2 / samples;
+        double center = (rate + z2 / (2.0 * samples)) / denominator;
+        double halfWidth = Z_95 / denominator * Math.sqrt(rate * (1 - rate) / samples + z2 / (4.0 * samples * samples));
+        return Math.max(rate - (center - halfWidth), center + halfWidth - rate);
+    }
+
+    // Normal approximation half-width for the mean equity, falling back to the Wilson bound when every sample had
+    // the same equity and the sample variance would claim certainty
+    static double equityErrorBound(long samples, double equitySum, double equitySquareSum) {
+        if (samples < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double mean = equitySum / samples;
+        double variance = Math.max(0, (equitySquareSum - samples * mean * mean) / (samples - 1));
+        return variance == 0 ? wilsonErrorBound(mean, samples) : Z_95 * Math.sqrt(variance / samples);
+    }
+
+    @Override
+    public String toString() {
+        String result = "Samples: " + samples + "\n";
+        for (ProbabilityCalculator.HandType handType : HAND_TYPES) {
+            result += String.format("%s: %.4f +/- %.4f%n", handType, getFrequency(handType), getErrorBound(handType));
+        }
+        result += String.format("Win: %.4f +/- %.4f, Tie: %.4f +/- %.4f, Loss: %.4f +/- %.4f%n",
+                getWinRate(), getWinErrorBound(), getTieRate(), getTieErrorBound(), getLossRate(), getLossErrorBound());
+        result += String.format("Equity: %.4f +/- %.4f", getEquity(), getEquityErrorBound());
+        return result;
+    }
+}
@@ -0,0 +1,193 @@
+// Keeps the flop enumeration split by turn and river card, so the turn and river answers are lookups
+public class StreetCache {
+    private static final int FLOP_SIZE = 3;
+    private static final int HAND_TYPE_COUNT = ProbabilityCalculator.HandType.values().length;
+
+    private final long handCards;
+    private final long flopCards;
+    private final long deckCards;
+    private final long[] deckBits; // one single-bit mask per card left in the deck on the flop
+    private final byte[] runoutTypes; // HandType ordinal of the runout (turn i, river j), stored for both orders
+    private final long[][] turnCounts; // per turn card: runouts ending in each HandType over every river
+    private final HandDistribution flopDistribution;
+    // Heads-up results per runout, filled the first time equity is asked for. A DistributionPublisher may ask from
+    // another thread, so the fill is synchronized and runoutWins, written last, publishes the other two.
+    private volatile int[] runoutWins;
+    private int[] runoutTies;
+    private int[] runoutLosses;
+
+    public StreetCache(long handCards, long flopCards, long deckCards) {
+        if (Long.bitCount(flopCards) != FLOP_SIZE) {
+            throw new IllegalArgumentException("The street cache starts from a three-card flop.");
+        }
+        if ((handCards & flopCards) != 0 || ((handCards | flopCards) & deckCards) != 0) {
+            throw new IllegalArgumentException("Hand, community cards and deck must not share cards.");
+        }
+        this.handCards = handCards;
+        this.flopCards = flopCards;
+        this.deckCards = deckCards;
+        int cardCount = Long.bitCount(deckCards);
+        deckBits = new long[cardCount];
+        int index = 0;
+        for (long remaining = deckCards; remaining != 0; remaining &= remaining - 1) {
+            deckBits[index++] = Long.lowestOneBit(remaining);
+        }
+
+        // Every runout is evaluated once and credited to both of its cards' turn branches
+        runoutTypes = new byte[cardCount * cardCount];
+        turnCounts = new long[cardCount][HAND_TYPE_COUNT];
+        long[] flopCounts = new long[HAND_TYPE_COUNT];
+        long known = handCards | flopCards;
+        for (int turn = 0; turn < cardCount - 1; turn++) {
+            long withTurn = known | deckBits[turn];
+            for (int river = turn + 1; river < cardCount; river++) {
+                int handType = HandEvaluator.evaluate(withTurn | deckBits[river]) >>> HandEvaluator.CATEGORY_SHIFT;
+                runoutTypes[turn * cardCount + river] = (byte) handType;
+                runoutTypes[river * cardCount + turn] = (byte) handType;
+                turnCounts[turn][handType]++;
+                turnCounts[river][handType]++;
+                flopCounts[handType]++;
+            }
+        }
+        flopDistribution = new HandDistribution(flopCounts);
+    }
+
+    // Whether the state is this flop, or a turn or river dealt to it from the same deck
+    public boolean continues(long handCards, long communityCards, long deckCards) {
+        return dealtSinceFlop(handCards, communityCards, deckCards) >= 0;
+    }
+
+    // The distribution for this flop or any turn/river dealt from it, or null if the state did not grow out of it
+    public HandDistribution getDistribution(long handCards, long communityCards, long deckCards) {
+        long dealt = dealtSinceFlop(handCards, communityCards, deckCards);
+        if (dealt < 0) {
+            return null;
+        }
+        if (dealt == 0) {
+            return flopDistribution;
+        }
+        int turn = deckPosition(Long.lowestOneBit(dealt));
+        if (Long.bitCount(dealt) == 1) {
+            return new HandDistribution(turnCounts[turn]);
+        }
+        int river = deckPosition(Long.highestOneBit(dealt));
+        long[] counts = new long[HAND_TYPE_COUNT];
+        counts[runoutTypes[turn * deckBits.length + river]] = 1;
+        return new HandDistribution(counts);
+    }
+
+    // Whether heads-up equity has been worked out already, so asking for it again is only a lookup
+    boolean hasHeadsUpEquity() {
+        return runoutWins != null;
+    }
+
+    // Exact heads-up equity for this flop or any turn/river dealt from it, or null if the state did not grow out of it
+    public EquityResult getHeadsUpEquity(long handCards, long communityCards, long deckCards) {
+        long dealt = dealtSinceFlop(handCards, communityCards, deckCards);
+        if (dealt < 0) {
+            return null;
+        }
+        if (runoutWins == null) {
+            computeHeadsUpRunouts();
+        }
+        int cardCount = deckBits.length;
+        long wins = 0;
+        long ties = 0;
+        long losses = 0;
+        if (Long.bitCount(dealt) == 2) {
+            int runout = deckPosition(Long.lowestOneBit(dealt)) * cardCount + deckPosition(Long.highestOneBit(dealt));
+            wins = runoutWins[runout];
+            ties = runoutTies[runout];
+            losses = runoutLosses[runout];
+        } else {
+            int onlyTurn = dealt == 0 ? -1 : deckPosition(dealt);
+            for (int turn = 0; turn < cardCount - 1; turn++) {
+                for (int river = turn + 1; river < cardCount; river++) {
+                    if (onlyTurn < 0 || turn == onlyTurn || river == onlyTurn) {
+                        int runout = turn * cardCount + river;
+                        wins += runoutWins[runout];
+                        ties += runoutTies[runout];
+                        losses += runoutLosses[runout];
+                    }
+                }
+            }
+        }
+        return new EquityResult(wins, ties, losses, wins + ties / 2.0);
+    }
+
+    // Heads-up equity once the given card falls on the turn, summed straight from the runouts without allocating
+    double getHeadsUpEquityAfter(long cardBit) {
+        if ((cardBit & deckCards) == 0 || Long.bitCount(cardBit) != 1) {
+            throw new IllegalArgumentException("The turn card must come from the deck the flop was dealt from.");
+        }
+        if (runoutWins == null) {
+            computeHeadsUpRunouts();
+        }
+        int cardCount = deckBits.length;
+        int turn = deckPosition(cardBit);
+        long trials = 0;
+        double equity = 0;
+        for (int river = 0; river < cardCount; river++) {
+            if (river != turn) {
+                int runout = Math.min(turn, river) * cardCount + Math.max(turn, river);
+                trials += runoutWins[runout] + runoutTies[runout] + runoutLosses[runout];
+                equity += runoutWins[runout] + runoutTies[runout] / 2.0;
+            }
+        }
+        return trials == 0 ? 0 : equity / trials;
+    }
+
+    private synchronized void computeHeadsUpRunouts() {
+        if (runoutWins != null) {
+            return; // filled by another thread while this one waited
+        }
+        int cardCount = deckBits.length;
+        int[] wins = new int[cardCount * cardCount];
+        int[] ties = new int[cardCount * cardCount];
+        int[] losses = new int[cardCount * cardCount];
+        for (int turn = 0; turn < cardCount - 1; turn++) {
+            for (int river = turn + 1; river < cardCount; river++) {
+                long board = flopCards | deckBits[turn] | deckBits[river];
+                int heroValue = HandEvaluator.evaluate(handCards | board);
+                int runout = turn * cardCount + river;
+                for (int first = 0; first < cardCount - 1; first++) {
+                    if (first == turn || first == river) {
+                        continue;
+                    }
+                    for (int second = first + 1; second < cardCount; second++) {
+                        if (second == turn || second == river) {
+                            continue;
+                        }
+                        int opponentValue = HandEvaluator.evaluate(board | deckBits[first] | deckBits[second]);
+                        if (opponentValue > heroValue) {
+                            losses[runout]++;
+                        } else if (opponentValue == heroValue) {
+                            ties[runout]++;
+                        } else {
+                            wins[runout]++;
+                        }
+                    }
+                }
+            }
+        }
+        runoutTies = ties;
+        runoutLosses = losses;
+        runoutWins = wins;
+    }
+
+    // The turn and river cards dealt since the flop as a mask, or -1 if the state is not a continuation of it
+    private long dealtSinceFlop(long handCards, long communityCards, long deckCards) {
+        if (handCards != this.handCards || (communityCards & flopCards) != flopCards) {
+            return -1;
+        }
+        long dealt = communityCards & ~flopCards;
+        if (Long.bitCount(dealt) > 2 || (dealt & ~this.deckCards) != 0 || deckCards != (this.deckCards & ~dealt)) {
+            return -1;
+        }
+        return dealt;
+    }
+
+    private int deckPosition(long cardBit) {
+        return Long.bitCount(deckCards & (cardBit - 1));
+    }
+}
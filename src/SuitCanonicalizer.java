@@ -0,0 +1,230 @@
+import java.util.HashMap;
+import java.util.Map;
+
+public class SuitCanonicalizer {
+    // Suits carry no rank, so relabelling them never changes a result: AhKh on 2h7c9d plays like AsKs on 2s7d9c
+    private static final int SUIT_COUNT = CardSet.SUIT_COUNT;
+    private static final int VALUE_COUNT = CardSet.VALUE_COUNT;
+    private static final long SUIT_BITS = (1L << VALUE_COUNT) - 1;
+    private static final int[][] PERMUTATIONS = new int[24][]; // PERMUTATIONS[p][suit] = the suit it becomes
+    private static final int MAX_HAND_CARDS = 4; // Omaha
+    private static final int BOARD_SIZE = GameRules.BOARD_SIZE;
+    private static final int SHAPE_COUNT = (MAX_HAND_CARDS + 1) * (BOARD_SIZE + 1); // hand and board cards in one suit
+    private static final long[] COMPONENT_COUNTS = new long[SHAPE_COUNT]; // ways one suit can hold each shape
+    // First index of each sorted combination of suit shapes, and of each hand and board size (one past the last in
+    // the extra board column), laid out hand size first, then board size, then shape
+    private static final Map<Integer, Long> SHAPE_OFFSETS = new HashMap<>();
+    private static final long[][] STREET_OFFSETS = new long[MAX_HAND_CARDS + 1][BOARD_SIZE + 2];
+
+    static {
+        int count = 0;
+        for (int a = 0; a < SUIT_COUNT; a++) {
+            for (int b = 0; b < SUIT_COUNT; b++) {
+                for (int c = 0; c < SUIT_COUNT; c++) {
+                    int d = 6 - a - b - c; // the suit left over
+                    if (a != b && a != c && b != c && d >= 0 && d < SUIT_COUNT && d != a && d != b && d != c) {
+                        PERMUTATIONS[count++] = new int[]{a, b, c, d};
+                    }
+                }
+            }
+        }
+        for (int hand = 0; hand <= MAX_HAND_CARDS; hand++) {
+            for (int board = 0; board <= BOARD_SIZE; board++) {
+                COMPONENT_COUNTS[suitShape(hand, board)] = Combination.calculateCombinations(VALUE_COUNT, hand)
+                        * Combination.calculateCombinations(VALUE_COUNT - hand, board);
+            }
+        }
+        long offset = 0;
+        for (int hand = 0; hand <= MAX_HAND_CARDS; hand++) {
+            for (int board = 0; board <= BOARD_SIZE; board++) {
+                STREET_OFFSETS[hand][board] = offset;
+                offset = addShapes(new int[SUIT_COUNT], 0, SHAPE_COUNT - 1, hand, board, offset);
+            }
+            STREET_OFFSETS[hand][BOARD_SIZE + 1] = offset;
+        }
+    }
+
+    // Every way to spread the cards over the suits, largest shape first, each given the block of indexes it needs
+    private static long addShapes(int[] shapes, int suit, int maxShape, int handLeft, int boardLeft, long offset) {
+        if (suit == SUIT_COUNT) {
+            if (handLeft != 0 || boardLeft != 0) {
+                return offset;
+            }
+            long classes = 1;
+            for (int first = 0; first < SUIT_COUNT; ) {
+                int last = first;
+                while (last + 1 < SUIT_COUNT && shapes[last + 1] == shapes[first]) {
+                    last++;
+                }
+                classes *= choose(COMPONENT_COUNTS[shapes[first]] + (last - first), last - first + 1);
+                first = last + 1;
+            }
+            SHAPE_OFFSETS.put(shapeKey(shapes), offset);
+            return offset + classes;
+        }
+        for (int shape = maxShape; shape >= 0; shape--) {
+            int hand = shape / (BOARD_SIZE + 1);
+            int board = shape % (BOARD_SIZE + 1);
+            if (hand <= handLeft && board <= boardLeft && hand + board <= VALUE_COUNT) {
+                shapes[suit] = shape;
+                offset = addShapes(shapes, suit + 1, shape, handLeft - hand, boardLeft - board, offset);
+            }
+        }
+        return offset;
+    }
+
+    private static int suitShape(int handCards, int boardCards) {
+        return handCards * (BOARD_SIZE + 1) + boardCards;
+    }
+
+    private static int shapeKey(int[] shapes) {
+        int key = 0;
+        for (int shape : shapes) {
+            key = key * SHAPE_COUNT + shape;
+        }
+        return key;
+    }
+
+    // n choose k for the small k of a suit group, where n can pass the 52 of Combination's table
+    private static long choose(long n, int k) {
+        if (n < k) {
+            return 0;
+        }
+        long result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return result;
+    }
+
+    // The bits of cards with the positions in removed squeezed out, so board values rank among those the hand left
+    private static long withoutPositions(long cards, long removed) {
+        long result = 0;
+        for (long remaining = cards; remaining != 0; remaining &= remaining - 1) {
+            int position = Long.numberOfTrailingZeros(remaining);
+            result |= 1L << (position - Long.bitCount(removed & ((1L << position) - 1)));
+        }
+        return result;
+    }
+
+    public static int permutationCount() {
+        return PERMUTATIONS.length;
+    }
+
+    public static long permute(long cards, int permutation) {
+        int[] target = PERMUTATIONS[permutation];
+        long result = 0;
+        for (int suit = 0; suit < SUIT_COUNT; suit++) {
+            result |= ((cards >>> (suit * VALUE_COUNT)) & SUIT_BITS) << (target[suit] * VALUE_COUNT);
+        }
+        return result;
+    }
+
+    // The relabelling that makes (hand, board, dead) smallest, compared in that order; equal states share it
+    public static int canonicalPermutation(long handCards, long communityCards, long deadCards) {
+        int best = 0;
+        long bestHand = handCards;
+        long bestBoard = communityCards;
+        long bestDead = deadCards;
+        for (int permutation = 1; permutation < PERMUTATIONS.length; permutation++) {
+            long hand = permute(handCards, permutation);
+            if (hand > bestHand) {
+                continue; // masks stay below 2^52, so signed comparison is fine
+            }
+            long board = permute(communityCards, permutation);
+            if (hand == bestHand && board > bestBoard) {
+                continue;
+            }
+            long dead = permute(deadCards, permutation);
+            if (hand == bestHand && board == bestBoard && dead >= bestDead) {
+                continue;
+            }
+            best = permutation;
+            bestHand = hand;
+            bestBoard = board;
+            bestDead = dead;
+        }
+        return best;
+    }
+
+    public static int canonicalPermutation(long handCards, long communityCards) {
+        return canonicalPermutation(handCards, communityCards, 0);
+    }
+
+    // {hand, board} after canonical relabelling
+    public static long[] canonicalize(Player player, Table table) {
+        long handCards = player.getHandCardSet().getMask();
+        long communityCards = table.getCommunityCardSet().getMask();
+        int permutation = canonicalPermutation(handCards, communityCards);
+        return new long[]{permute(handCards, permutation), permute(communityCards, permutation)};
+    }
+
+    // Dense index of the suit-isomorphism class of (hand, board): equal for relabelled states, different otherwise,
+    // and with no gaps, so every hand and board size owns the block canonicalIndexOffset .. + canonicalIndexCount.
+    // A class is the multiset of its four suit components (hole values, board values), so suits are sorted by how
+    // many cards they hold, then by component; suits holding equally many share a multiset rank.
+    public static long canonicalIndex(long handCards, long communityCards) {
+        int handCount = Long.bitCount(handCards);
+        int boardCount = Long.bitCount(communityCards);
+        if ((handCards & communityCards) != 0 || ((handCards | communityCards) & ~CardSet.FULL_DECK) != 0
+                || handCount > MAX_HAND_CARDS || boardCount > BOARD_SIZE) {
+            throw new IllegalArgumentException("Need distinct cards, at most " + MAX_HAND_CARDS + " in the hand and "
+                    + BOARD_SIZE + " on the board.");
+        }
+        int[] shapes = new int[SUIT_COUNT];
+        long[] components = new long[SUIT_COUNT];
+        for (int suit = 0; suit < SUIT_COUNT; suit++) {
+            long hand = (handCards >>> (suit * VALUE_COUNT)) & SUIT_BITS;
+            long board = (communityCards >>> (suit * VALUE_COUNT)) & SUIT_BITS;
+            int boardInSuit = Long.bitCount(board);
+            long component = Combination.rankCombination(hand)
+                    * Combination.calculateCombinations(VALUE_COUNT - Long.bitCount(hand), boardInSuit)
+                    + Combination.rankCombination(withoutPositions(board, hand));
+            // Insertion sort: most cards first, then the smaller component
+            int shape = suitShape(Long.bitCount(hand), boardInSuit);
+            int position = suit;
+            while (position > 0 && (shapes[position - 1] < shape
+                    || (shapes[position - 1] == shape && components[position - 1] > component))) {
+                shapes[position] = shapes[position - 1];
+                components[position] = components[position - 1];
+                position--;
+            }
+            shapes[position] = shape;
+            components[position] = component;
+        }
+        long index = 0;
+        long scale = 1;
+        for (int first = 0; first < SUIT_COUNT; ) {
+            int last = first;
+            while (last + 1 < SUIT_COUNT && shapes[last + 1] == shapes[first]) {
+                last++;
+            }
+            long rank = 0; // non-decreasing components made strictly increasing, then ranked like a combination
+            for (int i = first; i <= last; i++) {
+                rank += choose(components[i] + (i - first), i - first + 1);
+            }
+            index += rank * scale;
+            scale *= choose(COMPONENT_COUNTS[shapes[first]] + (last - first), last - first + 1);
+            first = last + 1;
+        }
+        return SHAPE_OFFSETS.get(shapeKey(shapes)) + index;
+    }
+
+    // Number of classes with the given number of hand and board cards: 169, 1,286,792, 13,960,050 and 123,156,254
+    // for a Hold'em hand pre-flop, on the flop, the turn and the river
+    public static long canonicalIndexCount(int handCards, int boardCards) {
+        return canonicalIndexOffset(handCards, boardCards + 1) - canonicalIndexOffset(handCards, boardCards);
+    }
+
+    // First index of the block for the given number of hand and board cards
+    public static long canonicalIndexOffset(int handCards, int boardCards) {
+        if (handCards < 0 || handCards > MAX_HAND_CARDS || boardCards < 0 || boardCards > BOARD_SIZE + 1) {
+            throw new IllegalArgumentException("Need 0 to " + MAX_HAND_CARDS + " hand and 0 to " + BOARD_SIZE + " board cards.");
+        }
+        return STREET_OFFSETS[handCards][boardCards];
+    }
+
+    public static long canonicalIndex(Player player, Table table) {
+        return canonicalIndex(player.getHandCardSet().getMask(), table.getCommunityCardSet().getMask());
+    }
+}
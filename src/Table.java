@@ -1,21 +1,30 @@
 import java.util.Scanner;
 public class Table {
-    private Card[] communityCards;
-    private int cardCount;
+    private final static int MAX_COMMUNITY_CARDS = 5;
+    private final CardSet communityCards;
     private RoundState roundState;
 
     public Table() {
-        setCommunityCards(new Card[5]); // Maximum of 5 community cards
-        cardCount = 0;
+        communityCards = new CardSet(); // Maximum of 5 community cards
         setRoundState(RoundState.PRE_FLOP); // first case
     }
 
-    public Card[] getCommunityCards() {
-        return communityCards;
+    public Card[] getCommunityCards() { // only the cards dealt so far
+        return communityCards.toArray();
     }
 
     public void setCommunityCards(Card[] communityCards) {
-        this.communityCards = communityCards;
+        this.communityCards.clear();
+        for (Card card : communityCards) {
+            if (card != null && this.communityCards.size() < MAX_COMMUNITY_CARDS) {
+                this.communityCards.add(card);
+            }
+        }
+        updateRoundState();
+    }
+
+    public CardSet getCommunityCardSet() {
+        return communityCards;
     }
 
     public RoundState getRoundState() {
@@ -31,7 +40,7 @@ public class Table {
     }
 
     private void updateRoundState() {
-        switch (getCommunityCards().length) {
+        switch (communityCards.size()) {
             case 0:
                 setRoundState(RoundState.PRE_FLOP);
                 break;
@@ -47,8 +56,7 @@ public class Table {
         }
     }
     public void addCommunityCard(Card card) {
-        if (cardCount < getCommunityCards().length) {
-            getCommunityCards()[cardCount++] = card;
+        if (communityCards.size() < MAX_COMMUNITY_CARDS && communityCards.add(card)) {
             updateRoundState();
         }
     }
@@ -56,8 +64,8 @@ public class Table {
         System.out.println("Enter community cards (up to 5):");
 
         // Loop until up to 5 cards are entered or the user decides to stop entering cards
-        while (cardCount < 5) {
-            System.out.println("Enter card " + (cardCount + 1) + " (format: VALUE SUIT, e.g., ACE HEARTS), or type 'done' to finish:");
+        while (communityCards.size() < MAX_COMMUNITY_CARDS) {
+            System.out.println("Enter card " + (communityCards.size() + 1) + " (format: Ah or VALUE SUIT, e.g., ACE HEARTS), or type 'done' to finish:");
             String cardInput = scanner.nextLine().trim().toUpperCase(); //for processing, removing any white space or extra space in input
 
             // Check if the user decides to stop entering more cards
@@ -65,23 +73,20 @@ public class Table {
                 break;
             }
 
-            try {
-                // Split the input into value and suit
-                String[] parts = cardInput.split(" ");
-                Card.Value value = Card.Value.valueOf(parts[0]);
-                Card.Suit suit = Card.Suit.valueOf(parts[1]);
-                Card card = new Card(value, suit);
-
-                // Attempt to remove the card from the deck and add it to the community cards
-                if (deck.removeCard(card)) {
-                    communityCards[cardCount++] = card;
-                    updateRoundState(); // Update the round state based on the number of community cards
-                } else {
-                    System.out.println("Card not available or already taken. Please enter a different card.");
-                }
-            } catch (Exception e) {
-                // Handle invalid input (either format or non-existent card value/suit)
-                System.out.println("Invalid card input. Please try again.");
+            // Invalid input (either format or non-existent card value/suit) comes back as a negative code
+            int cardId = CardParser.parseCard(cardInput);
+            if (cardId < 0) {
+                System.out.println("Invalid card input. " + CardParser.describe(cardId) + " Please try again.");
+                continue;
+            }
+            Card card = Card.of(cardId);
+
+            // Attempt to remove the card from the deck and add it to the community cards
+            if (deck.removeCard(card)) {
+                communityCards.add(card);
+                updateRoundState(); // Update the round state based on the number of community cards
+            } else {
+                System.out.println("Card not available or already taken. Please enter a different card.");
             }
         }
     }
@@ -90,15 +95,10 @@ public class Table {
     public String toString() {
         String result = "Round State: " + roundState + "\nCommunity Cards: ";
 
-        if (cardCount == 0) {
+        if (communityCards.isEmpty()) {
             result += "None";
         } else {
-            for (int i = 0; i < cardCount; i++) {
-                result += communityCards[i];
-                if (i < cardCount - 1) {
-                    result += ", ";
-                }
-            }
+            result += communityCards;
         }
 
         return result;
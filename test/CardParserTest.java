@@ -0,0 +1,65 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class CardParserTest {
+    @Test
+    void readsShorthandAndLongForms() {
+        int aceOfHearts = CardSet.cardIndex(Card.Value.ACE, Card.Suit.HEARTS);
+        assertEquals(aceOfHearts, CardParser.parseCard("Ah"));
+        assertEquals(aceOfHearts, CardParser.parseCard(" aH "));
+        assertEquals(aceOfHearts, CardParser.parseCard("ace hearts"));
+        assertEquals(CardSet.cardIndex(Card.Value.TEN, Card.Suit.SPADES), CardParser.parseCard("Ts"));
+    }
+
+    @Test
+    void returnsAnErrorCodeForEachKindOfBadCard() {
+        assertEquals(CardParser.INVALID_VALUE, CardParser.parseCard("Xh"));
+        assertEquals(CardParser.INVALID_VALUE, CardParser.parseCard("ONE HEARTS"));
+        assertEquals(CardParser.INVALID_SUIT, CardParser.parseCard("Ax"));
+        assertEquals(CardParser.INVALID_SUIT, CardParser.parseCard("ACE STARS"));
+        assertEquals(CardParser.INCOMPLETE_CARD, CardParser.parseCard("A"));
+        assertEquals(CardParser.INCOMPLETE_CARD, CardParser.parseCard("ACE"));
+
+        assertEquals(CardParser.INVALID_VALUE, CardParser.parseCards("Ah1c"));
+        assertEquals(CardParser.INVALID_SUIT, CardParser.parseCards("Ah Kx"));
+        assertEquals(CardParser.INCOMPLETE_CARD, CardParser.parseCards("AhK"));
+        assertEquals(CardParser.DUPLICATE_CARD, CardParser.parseCards("Ah Kd ah"));
+        assertEquals(-1, CardParser.INVALID_VALUE);
+        assertEquals(-2, CardParser.INVALID_SUIT);
+        assertEquals(-3, CardParser.INCOMPLETE_CARD);
+        assertEquals(-4, CardParser.DUPLICATE_CARD);
+    }
+
+    @Test
+    void readsGluedAndSpacedLists() {
+        long expected = CardParser.parseCards("9h2c7s");
+        assertEquals(3, Long.bitCount(expected));
+        assertEquals(expected, CardParser.parseCards("9h 2c, 7s"));
+        assertEquals(expected, CardParser.parseCards("x 9h2c7s x", 2, 8));
+        assertEquals(0, CardParser.parseCards(""));
+        assertEquals("9h2c7s", CardParser.formatCards(expected));
+        assertEquals(CardSet.FULL_DECK, CardParser.parseCards(CardParser.formatCards(CardSet.FULL_DECK)));
+    }
+
+    @Test
+    void readsBytesWithoutMovingTheBuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap("Ah Kd,Ah 1h Q".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(CardParser.parseCards("AhKd"), CardParser.parseCards(buffer, 0, 5));
+        assertEquals(CardParser.DUPLICATE_CARD, CardParser.parseCards(buffer, 0, 8));
+        assertEquals(CardParser.INVALID_VALUE, CardParser.parseCards(buffer, 9, 11));
+        assertEquals(CardParser.INCOMPLETE_CARD, CardParser.parseCards(buffer, 11, 13));
+        assertEquals(0, buffer.position());
+        assertEquals(buffer.capacity(), buffer.limit());
+    }
+
+    @Test
+    void describesEachCode() {
+        assertEquals("Duplicate card.", CardParser.describe(CardParser.DUPLICATE_CARD));
+        assertEquals("No error.", CardParser.describe(0));
+        assertEquals("Unknown card error -9.", CardParser.describe(-9));
+    }
+}
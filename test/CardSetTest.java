@@ -0,0 +1,81 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CardSetTest {
+    private static final Card ACE_OF_HEARTS = Card.of(Card.Value.ACE, Card.Suit.HEARTS);
+    private static final Card ACE_OF_SPADES = Card.of(Card.Value.ACE, Card.Suit.SPADES);
+    private static final Card TWO_OF_HEARTS = Card.of(Card.Value.TWO, Card.Suit.HEARTS);
+
+    @Test
+    void givesEveryCardItsOwnBit() {
+        long seen = 0;
+        for (Card.Suit suit : Card.Suit.values()) {
+            for (Card.Value value : Card.Value.values()) {
+                int index = CardSet.cardIndex(value, suit);
+                assertEquals(value.ordinal(), CardSet.valueIndexOf(index));
+                assertEquals(suit.ordinal(), CardSet.suitIndexOf(index));
+                assertSame(Card.of(value, suit), CardSet.cardAt(index));
+                assertEquals(0, seen & (1L << index));
+                seen |= 1L << index;
+            }
+        }
+        assertEquals(CardSet.FULL_DECK, seen);
+        assertEquals(52, Long.bitCount(CardSet.FULL_DECK));
+    }
+
+    @Test
+    void addsAndRemovesEachCardOnce() {
+        CardSet cards = new CardSet();
+        assertTrue(cards.isEmpty());
+        assertTrue(cards.add(ACE_OF_HEARTS));
+        assertFalse(cards.add(ACE_OF_HEARTS));
+        assertTrue(cards.add(TWO_OF_HEARTS));
+        assertEquals(2, cards.size());
+        assertTrue(cards.contains(ACE_OF_HEARTS));
+        assertFalse(cards.contains(ACE_OF_SPADES));
+        assertFalse(cards.contains(null));
+
+        assertTrue(cards.remove(ACE_OF_HEARTS));
+        assertFalse(cards.remove(ACE_OF_HEARTS));
+        assertEquals(CardSet.cardBit(TWO_OF_HEARTS), cards.getMask());
+        cards.clear();
+        assertTrue(cards.isEmpty());
+    }
+
+    @Test
+    void countsValuesAndSuits() {
+        CardSet cards = new CardSet();
+        cards.add(ACE_OF_HEARTS);
+        cards.add(ACE_OF_SPADES);
+        cards.add(TWO_OF_HEARTS);
+        assertEquals(2, cards.countValue(Card.Value.ACE));
+        assertEquals(1, cards.countValue(Card.Value.TWO));
+        assertEquals(0, cards.countValue(Card.Value.KING));
+        assertEquals(2, cards.countSuit(Card.Suit.HEARTS));
+        assertEquals(1, cards.countSuit(Card.Suit.SPADES));
+        assertEquals(0, cards.countSuit(Card.Suit.CLUBS));
+        // bit 12 is the ace and bit 0 the two inside each suit's 13 bits
+        assertEquals((1 << 12) | 1, CardSet.suitMask(cards.getMask(), Card.Suit.HEARTS.ordinal()));
+        assertEquals(4, Long.bitCount(CardSet.valueMask(Card.Value.ACE.ordinal())));
+    }
+
+    @Test
+    void listsCardsInBitOrder() {
+        CardSet cards = new CardSet();
+        cards.add(ACE_OF_SPADES);
+        cards.add(ACE_OF_HEARTS);
+        cards.add(TWO_OF_HEARTS);
+        assertArrayEquals(new Card[] {TWO_OF_HEARTS, ACE_OF_HEARTS, ACE_OF_SPADES}, cards.toArray());
+        assertEquals("TWO of HEARTS, ACE of HEARTS, ACE of SPADES", cards.toString());
+    }
+
+    @Test
+    void dropsBitsOutsideTheDeck() {
+        assertEquals(CardSet.FULL_DECK, new CardSet(-1L).getMask());
+    }
+}
@@ -0,0 +1,62 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class CombinationTest {
+    @Test
+    void readsBinomialsFromPascalsTriangle() {
+        assertEquals(2_598_960, Combination.calculateCombinations(52, 5));
+        assertEquals(133_784_560, Combination.calculateCombinations(52, 7));
+        assertEquals(1, Combination.calculateCombinations(52, 0));
+        assertEquals(0, Combination.calculateCombinations(5, 6));
+        assertEquals(Combination.factorial(10) / (Combination.factorial(3) * Combination.factorial(7)),
+                Combination.calculateCombinations(10, 3));
+        assertThrows(IllegalArgumentException.class, () -> Combination.calculateCombinations(53, 2));
+    }
+
+    // Every subset of size k ranks to its own index in colex order, in the order nextCombination walks them
+    @Test
+    void ranksAndUnranksEverySmallSubset() {
+        for (int k = 0; k <= 3; k++) {
+            long count = Combination.calculateCombinations(Combination.MAX_N, k);
+            long positions = (1L << k) - 1;
+            for (long index = 0; index < count; index++) {
+                assertEquals(index, Combination.rankCombination(positions));
+                assertEquals(positions, Combination.unrankCombination(index, k));
+                if (k > 0) {
+                    positions = Combination.nextCombination(positions);
+                }
+            }
+        }
+    }
+
+    @Test
+    void roundTripsLargeSubsets() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int k = 4; k <= Combination.MAX_N; k++) {
+            long count = Combination.calculateCombinations(Combination.MAX_N, k);
+            long[] indices = {0, count - 1, random.nextLong(count), random.nextLong(count)};
+            for (long index : indices) {
+                long positions = Combination.unrankCombination(index, k);
+                assertEquals(k, Long.bitCount(positions));
+                assertEquals(0, positions & ~CardSet.FULL_DECK);
+                assertEquals(index, Combination.rankCombination(positions));
+            }
+        }
+        assertEquals(CardSet.FULL_DECK, Combination.unrankCombination(0, Combination.MAX_N));
+        assertEquals(0x7FL << (Combination.MAX_N - 7), Combination.unrankCombination(133_784_559, 7));
+    }
+
+    @Test
+    void rejectsIndicesPastTheLastSubset() {
+        assertThrows(IllegalArgumentException.class, () -> Combination.unrankCombination(133_784_560, 7));
+        assertThrows(IllegalArgumentException.class, () -> Combination.unrankCombination(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> Combination.unrankCombination(1, Combination.MAX_N));
+        assertThrows(IllegalArgumentException.class, () -> Combination.unrankCombination(-1, 2));
+        assertThrows(IllegalArgumentException.class, () -> Combination.unrankCombination(0, -1));
+        assertThrows(IllegalArgumentException.class, () -> Combination.unrankCombination(0, Combination.MAX_N + 1));
+    }
+}
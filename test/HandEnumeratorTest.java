@@ -0,0 +1,53 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class HandEnumeratorTest {
+    private static final ProbabilityCalculator.HandType[] HAND_TYPES = ProbabilityCalculator.HandType.values();
+
+    // Every seven-card hand, counted by category; each one is seen once for each of its 21 two-card holdings
+    @Test
+    void classifiesEverySevenCardHand() {
+        long[] counts = new long[HAND_TYPES.length];
+        for (int classIndex = 0; classIndex < PreflopTable.CLASS_COUNT; classIndex++) {
+            long handCards = PreflopTable.representativeHand(classIndex);
+            HandDistribution distribution = new HandEnumerator(handCards, 0, CardSet.FULL_DECK & ~handCards).enumerate();
+            assertEquals(Combination.calculateCombinations(50, 5), distribution.getTotal());
+            for (ProbabilityCalculator.HandType handType : HAND_TYPES) {
+                counts[handType.ordinal()] += holdingsInClass(classIndex) * distribution.getCount(handType);
+            }
+        }
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            assertEquals(0, counts[i] % 21, HAND_TYPES[i].name());
+            counts[i] /= 21;
+            total += counts[i];
+        }
+        assertEquals(133_784_560L, total);
+        assertEquals(Combination.calculateCombinations(52, 7), total);
+        long[] expected = {23_294_460, 58_627_800, 31_433_400, 6_461_620, 6_180_020,
+                4_047_644, 3_473_184, 224_848, 37_260, 4_324};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], counts[i], HAND_TYPES[i].name());
+        }
+    }
+
+    @Test
+    void countsEveryRunoutFromTheTurn() {
+        long handCards = CardParser.parseCards("AhKh");
+        long communityCards = CardParser.parseCards("QhJh2c9d");
+        long deckCards = CardSet.FULL_DECK & ~(handCards | communityCards);
+        HandDistribution distribution = new HandEnumerator(handCards, communityCards, deckCards).enumerate();
+        assertEquals(46, distribution.getTotal());
+        assertEquals(1, distribution.getCount(ProbabilityCalculator.HandType.ROYAL_FLUSH)); // the ten of hearts
+        assertEquals(8, distribution.getCount(ProbabilityCalculator.HandType.FLUSH)); // the other hearts
+        assertEquals(3, distribution.getCount(ProbabilityCalculator.HandType.STRAIGHT)); // the other tens
+    }
+
+    // Pairs, suited and offsuit hands come in 6, 4 and 12 suit combinations
+    private static int holdingsInClass(int classIndex) {
+        int row = classIndex / CardSet.VALUE_COUNT;
+        int column = classIndex % CardSet.VALUE_COUNT;
+        return row == column ? 6 : row > column ? 4 : 12;
+    }
+}
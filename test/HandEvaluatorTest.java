@@ -0,0 +1,99 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class HandEvaluatorTest {
+    private static final ProbabilityCalculator.HandType[] HAND_TYPES = ProbabilityCalculator.HandType.values();
+
+    @Test
+    void classifiesEveryFiveCardHand() {
+        long[] counts = new long[HAND_TYPES.length];
+        Set<Integer> values = new HashSet<>();
+        long last = 0x1FL << (CardSet.DECK_SIZE - 5);
+        for (long cards = 0x1F; ; cards = Combination.nextCombination(cards)) {
+            int handValue = HandEvaluator.evaluate(cards);
+            counts[HandEvaluator.getHandType(handValue).ordinal()]++;
+            values.add(handValue);
+            if (cards == last) {
+                break;
+            }
+        }
+        long[] expected = {1_302_540, 1_098_240, 123_552, 54_912, 10_200, 5_108, 3_744, 624, 36, 4};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], counts[i], HAND_TYPES[i].name());
+        }
+        assertEquals(7_462, values.size()); // distinct five-card hand strengths
+    }
+
+    @Test
+    void ordersHandsByStrength() {
+        assertTrue(value("AhKhQhJhTh") > value("KsQsJsTs9s"));
+        assertTrue(value("6c5c4c3c2c") > value("5d4d3d2dAd")); // the wheel is the lowest straight flush
+        assertTrue(value("6h5d4c3s2h") > value("5h4d3c2sAh"));
+        assertTrue(value("AhAdAcKsKh") > value("KdKcKsAsAh"));
+        assertTrue(value("AsAcKhKdQh") > value("AhAdKcKs2h")); // the kicker decides
+        assertEquals(value("AhAdKcKsQh"), value("AsAcKhKdQd"));
+        assertEquals(ProbabilityCalculator.HandType.STRAIGHT, HandEvaluator.getHandType(value("5h4d3c2sAh")));
+        assertEquals(ProbabilityCalculator.HandType.ROYAL_FLUSH, HandEvaluator.getHandType(value("AhKhQhJhTh")));
+    }
+
+    // Six and seven cards play their best five
+    @Test
+    void picksTheBestFiveOfSevenCards() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int hand = 0; hand < 20_000; hand++) {
+            long cards = 0;
+            int cardCount = 6 + random.nextInt(2);
+            while (Long.bitCount(cards) < cardCount) {
+                cards |= 1L << random.nextInt(CardSet.DECK_SIZE);
+            }
+            int best = 0;
+            for (long left = cards; left != 0; left &= left - 1) {
+                long withoutOne = cards & ~Long.lowestOneBit(left);
+                if (cardCount == 6) {
+                    best = Math.max(best, HandEvaluator.evaluate(withoutOne));
+                    continue;
+                }
+                for (long right = left & (left - 1); right != 0; right &= right - 1) {
+                    best = Math.max(best, HandEvaluator.evaluate(withoutOne & ~Long.lowestOneBit(right)));
+                }
+            }
+            assertEquals(best, HandEvaluator.evaluate(cards), CardParser.formatCards(cards));
+        }
+    }
+
+    @Test
+    void batchEvaluatorAgreesWithTheLookUp() {
+        SplittableRandom random = new SplittableRandom(11);
+        long[] cards = new long[1_000];
+        for (int i = 0; i < cards.length; i++) {
+            while (Long.bitCount(cards[i]) < 5 + i % 3) {
+                cards[i] |= 1L << random.nextInt(CardSet.DECK_SIZE);
+            }
+        }
+        int[] tables = new int[cards.length];
+        int[] scalar = new int[cards.length];
+        BatchEvaluator.evaluateTables(cards, tables, cards.length);
+        BatchEvaluator.evaluateScalar(cards, scalar, cards.length);
+        for (int i = 0; i < cards.length; i++) {
+            assertEquals(HandEvaluator.evaluate(cards[i]), tables[i]);
+            assertEquals(tables[i], scalar[i]);
+        }
+    }
+
+    @Test
+    void rejectsHandsOutsideFiveToSevenCards() {
+        assertThrows(IllegalArgumentException.class, () -> HandEvaluator.evaluate(CardParser.parseCards("AhKhQhJh")));
+        assertThrows(IllegalArgumentException.class, () -> HandEvaluator.evaluate(CardParser.parseCards("AhKhQhJhTh9h8h7h")));
+    }
+
+    private static int value(String cards) {
+        return HandEvaluator.evaluate(CardParser.parseCards(cards));
+    }
+}
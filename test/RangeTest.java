@@ -0,0 +1,51 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class RangeTest {
+    @Test
+    void countsTheCombosOfEachToken() {
+        assertEquals(30, Range.parse("TT+").getComboCount()); // five pairs, six combos each
+        assertEquals(4, Range.parse("AKs").getComboCount());
+        assertEquals(12, Range.parse("KQo").getComboCount());
+        assertEquals(46, Range.parse("TT+, AKs, KQo").getComboCount());
+        assertEquals(16, Range.parse("AK").getComboCount());
+        assertEquals(1, Range.parse("AhKd").getComboCount());
+    }
+
+    @Test
+    void expandsPlusAndDashRanges() {
+        assertEquals(Range.parse("A2s,A3s,A4s,A5s").getComboCount(), Range.parse("A2s-A5s").getComboCount());
+        assertEquals(12 * 4, Range.parse("A2s+").getComboCount()); // every kicker under the ace
+        assertEquals(3 * 6, Range.parse("22-44").getComboCount());
+        assertEquals(3 * 6, Range.parse("44-22").getComboCount());
+    }
+
+    @Test
+    void keepsTheWeightOfEachCombo() {
+        Range range = Range.parse("TT+, A5s:0.5");
+        assertEquals(30 + 4, range.getComboCount());
+        assertEquals(30 + 4 * 0.5, range.getTotalWeight(), 1e-9);
+        assertEquals(0.5f, range.getWeight(CardParser.parseCards("Ah5h")));
+        assertEquals(1f, range.getWeight(CardParser.parseCards("ThTs")));
+        assertEquals(0f, range.getWeight(CardParser.parseCards("Ah5d")));
+    }
+
+    @Test
+    void mapsCombosBothWays() {
+        for (int combo = 0; combo < Range.COMBO_COUNT; combo++) {
+            assertEquals(combo, Range.comboIndex(Range.comboCards(combo)));
+        }
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> Range.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> Range.parse("AAs"));
+        assertThrows(IllegalArgumentException.class, () -> Range.parse("AKx"));
+        assertThrows(IllegalArgumentException.class, () -> Range.parse("AhAh"));
+        assertThrows(IllegalArgumentException.class, () -> Range.parse("AKs:2"));
+        assertThrows(IllegalArgumentException.class, () -> Range.parse("AKs-QJs"));
+    }
+}
@@ -0,0 +1,92 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class SuitCanonicalizerTest {
+    @Test
+    void countsTheKnownClasses() {
+        assertEquals(1_755, SuitCanonicalizer.canonicalIndexCount(0, 3)); // flops on their own
+        assertEquals(169, SuitCanonicalizer.canonicalIndexCount(2, 0));
+        assertEquals(1_286_792, SuitCanonicalizer.canonicalIndexCount(2, 3));
+        assertEquals(13_960_050, SuitCanonicalizer.canonicalIndexCount(2, 4));
+        assertEquals(123_156_254, SuitCanonicalizer.canonicalIndexCount(2, 5));
+    }
+
+    // Walking every state must reach every index of its block and nothing outside it
+    @Test
+    void fillsTheFlopAndPreflopBlocksWithoutGaps() {
+        assertFillsBlock(0, 3);
+        assertFillsBlock(2, 0);
+    }
+
+    @Test
+    void fillsTheHoldemFlopBlockWithoutGaps() {
+        assertFillsBlock(2, 3);
+    }
+
+    @Test
+    void givesRelabelledStatesOneIndex() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int state = 0; state < 10_000; state++) {
+            long handCards = randomCards(random, 2, 0);
+            long communityCards = randomCards(random, 3 + random.nextInt(3), handCards);
+            long index = SuitCanonicalizer.canonicalIndex(handCards, communityCards);
+            int permutation = random.nextInt(SuitCanonicalizer.permutationCount());
+            assertEquals(index, SuitCanonicalizer.canonicalIndex(SuitCanonicalizer.permute(handCards, permutation),
+                    SuitCanonicalizer.permute(communityCards, permutation)));
+        }
+    }
+
+    @Test
+    void rejectsOverlappingCards() {
+        long cards = CardParser.parseCards("AhKh");
+        assertThrows(IllegalArgumentException.class, () -> SuitCanonicalizer.canonicalIndex(cards, cards));
+    }
+
+    private static void assertFillsBlock(int handSize, int boardSize) {
+        long offset = SuitCanonicalizer.canonicalIndexOffset(handSize, boardSize);
+        int count = (int) SuitCanonicalizer.canonicalIndexCount(handSize, boardSize);
+        BitSet seen = new BitSet(count);
+        long handCards = (1L << handSize) - 1;
+        for (long handIndex = 0; handIndex < Combination.calculateCombinations(CardSet.DECK_SIZE, handSize); handIndex++) {
+            long[] rest = new long[CardSet.DECK_SIZE - handSize]; // the cards the hand left, as single bits
+            int size = 0;
+            for (long remaining = CardSet.FULL_DECK & ~handCards; remaining != 0; remaining &= remaining - 1) {
+                rest[size++] = Long.lowestOneBit(remaining);
+            }
+            long positions = (1L << boardSize) - 1;
+            for (long boardIndex = 0; boardIndex < Combination.calculateCombinations(size, boardSize); boardIndex++) {
+                long communityCards = 0;
+                for (long remaining = positions; remaining != 0; remaining &= remaining - 1) {
+                    communityCards |= rest[Long.numberOfTrailingZeros(remaining)];
+                }
+                long index = SuitCanonicalizer.canonicalIndex(handCards, communityCards) - offset;
+                assertTrue(index >= 0 && index < count, "index " + index + " outside the block");
+                seen.set((int) index);
+                if (boardSize > 0) {
+                    positions = Combination.nextCombination(positions);
+                }
+            }
+            if (handSize > 0) {
+                handCards = Combination.nextCombination(handCards);
+            }
+        }
+        assertEquals(count, seen.cardinality());
+    }
+
+    private static long randomCards(SplittableRandom random, int count, long taken) {
+        long cards = 0;
+        while (Long.bitCount(cards) < count) {
+            long card = 1L << random.nextInt(CardSet.DECK_SIZE);
+            if ((card & taken) == 0) {
+                cards |= card;
+            }
+        }
+        return cards;
+    }
+}
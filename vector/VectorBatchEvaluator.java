@@ -0,0 +1,68 @@
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// BatchEvaluator's per-hand bit work on Vector API lanes, one hand per 64-bit lane. The lanes add the four
+// suits bit-sliced into per-value counts and find the flush suit; the card counts and the table reads stay
+// scalar, in BatchEvaluator.valueOf, where Long.bitCount is a single instruction. Needs the incubator module,
+// so it is compiled only under -Pvector and loaded by reflection; without it BatchEvaluator keeps its table path.
+class VectorBatchEvaluator implements BatchEvaluator.Kernel {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final int VALUE_COUNT = CardSet.VALUE_COUNT;
+    private static final long SUIT_BITS = (1L << VALUE_COUNT) - 1;
+    private static final int FIELD_BITS = 16; // each suit gets a 16-bit field while its cards are counted
+    private static final long FIELD_ONES = 0x0001000100010001L;
+
+    // Per lane this packs ones | twos << 13 | fours << 26 | flush << 39, as BatchEvaluator.valueOf reads them. All of it
+    // is one straight method on purpose: C2 keeps the vectors in registers only while nothing crosses a call.
+    @Override
+    public void evaluate(long[] cards, int[] handValues, int count) {
+        long[] keys = new long[SPECIES.length()];
+        int vectorEnd = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < vectorEnd; i += SPECIES.length()) {
+            LongVector mask = LongVector.fromArray(SPECIES, cards, i);
+            LongVector first = mask.and(SUIT_BITS);
+            LongVector second = mask.lanewise(VectorOperators.LSHR, VALUE_COUNT).and(SUIT_BITS);
+            LongVector third = mask.lanewise(VectorOperators.LSHR, 2 * VALUE_COUNT).and(SUIT_BITS);
+            LongVector fourth = mask.lanewise(VectorOperators.LSHR, 3 * VALUE_COUNT).and(SUIT_BITS);
+
+            // The four suits added as 13 three-bit counters: bit v of ones, twos and fours spells value v's count
+            LongVector half1 = first.lanewise(VectorOperators.XOR, second);
+            LongVector carry1 = first.and(second);
+            LongVector half2 = third.lanewise(VectorOperators.XOR, fourth);
+            LongVector carry2 = third.and(fourth);
+            LongVector ones = half1.lanewise(VectorOperators.XOR, half2);
+            LongVector carry = half1.and(half2);
+            LongVector carries = carry1.lanewise(VectorOperators.XOR, carry2);
+            LongVector twos = carries.lanewise(VectorOperators.XOR, carry);
+            LongVector fours = carry1.and(carry2).or(carries.and(carry));
+
+            // Card count per suit with a SWAR popcount over 16-bit fields; a field of 5 to 12 has bit 3 set once 3 is added
+            LongVector spread = first.or(second.lanewise(VectorOperators.LSHL, FIELD_BITS))
+                    .or(third.lanewise(VectorOperators.LSHL, 2 * FIELD_BITS))
+                    .or(fourth.lanewise(VectorOperators.LSHL, 3 * FIELD_BITS));
+            LongVector counts = spread.sub(spread.lanewise(VectorOperators.LSHR, 1).and(0x5555555555555555L));
+            counts = counts.and(0x3333333333333333L).add(counts.lanewise(VectorOperators.LSHR, 2).and(0x3333333333333333L));
+            counts = counts.add(counts.lanewise(VectorOperators.LSHR, 4)).and(0x0F0F0F0F0F0F0F0FL);
+            counts = counts.add(counts.lanewise(VectorOperators.LSHR, 8)).and(0x00FF00FF00FF00FFL);
+            LongVector full = counts.add(3 * FIELD_ONES).and(8 * FIELD_ONES).lanewise(VectorOperators.LSHR, 3);
+            // With seven cards at most one suit is full, so folding the fields together leaves just that suit
+            LongVector flushes = spread.and(full.lanewise(VectorOperators.LSHL, VALUE_COUNT).sub(full));
+            LongVector flush = flushes.or(flushes.lanewise(VectorOperators.LSHR, FIELD_BITS))
+                    .or(flushes.lanewise(VectorOperators.LSHR, 2 * FIELD_BITS))
+                    .or(flushes.lanewise(VectorOperators.LSHR, 3 * FIELD_BITS)).and(SUIT_BITS);
+
+            ones.or(twos.lanewise(VectorOperators.LSHL, BatchEvaluator.KEY_TWOS_SHIFT))
+                    .or(fours.lanewise(VectorOperators.LSHL, BatchEvaluator.KEY_FOURS_SHIFT))
+                    .or(flush.lanewise(VectorOperators.LSHL, BatchEvaluator.KEY_FLUSH_SHIFT))
+                    .intoArray(keys, 0);
+            for (int lane = 0; lane < keys.length; lane++) {
+                handValues[i + lane] = BatchEvaluator.valueOf(cards[i + lane], keys[lane]);
+            }
+        }
+        for (; i < count; i++) {
+            handValues[i] = BatchEvaluator.evaluateOne(cards[i]);
+        }
+    }
+}